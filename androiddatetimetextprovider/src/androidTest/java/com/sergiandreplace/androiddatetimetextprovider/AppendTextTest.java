@@ -0,0 +1,57 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.io.StringWriter;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_MONTH;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class AppendTextTest {
+
+    private static final Locale LOCALE = new Locale("ca", "ES");
+
+    private final AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider();
+
+    @Test
+    public void testAppendText() throws Exception {
+        String text = provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, LOCALE);
+        StringBuilder buf = new StringBuilder("x");
+        StringWriter writer = new StringWriter();
+
+        assertTrue(provider.appendText(MONTH_OF_YEAR, 4, TextStyle.FULL, LOCALE, buf));
+        assertTrue(provider.appendText(MONTH_OF_YEAR, 4, TextStyle.FULL, LOCALE, writer));
+        assertFalse(provider.appendText(MONTH_OF_YEAR, 13, TextStyle.FULL, LOCALE, buf));
+
+        assertEquals("x" + text, buf.toString());
+        assertEquals(text, writer.toString());
+    }
+
+    @Test
+    public void testGetChars() {
+        String text = provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, LOCALE);
+        char[] chars = new char[text.length() + 1];
+
+        assertEquals(text.length(), provider.getChars(MONTH_OF_YEAR, 4, TextStyle.FULL, LOCALE, chars, 1));
+        assertEquals(text, new String(chars, 1, text.length()));
+        assertEquals(-1, provider.getChars(DAY_OF_MONTH, 4, TextStyle.FULL, LOCALE, chars, 0));
+    }
+
+    @Test
+    public void testAppendTexts() {
+        StringBuilder buf = new StringBuilder();
+
+        int count = provider.appendTexts(MONTH_OF_YEAR, new long[] {1, 13, 2}, TextStyle.SHORT, LOCALE, ";", buf);
+
+        assertEquals(2, count);
+        assertEquals(provider.getText(MONTH_OF_YEAR, 1, TextStyle.SHORT, LOCALE) + ";13;"
+                + provider.getText(MONTH_OF_YEAR, 2, TextStyle.SHORT, LOCALE), buf.toString());
+    }
+}
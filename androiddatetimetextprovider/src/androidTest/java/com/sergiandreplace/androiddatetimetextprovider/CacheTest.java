@@ -0,0 +1,398 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import android.content.ComponentCallbacks2;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.TemporalField;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.threeten.bp.temporal.ChronoField.AMPM_OF_DAY;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_WEEK;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class CacheTest {
+
+    private static final Locale[] LOCALES = {
+            new Locale("ca", "ES"),
+            new Locale("pl", "PL"),
+            new Locale("fi", "FI"),
+            new Locale("ru", "RU"),
+            new Locale("es", "ES")
+    };
+
+    private static void use(AndroidDateTimeTextProvider provider, Locale locale) {
+        provider.getText(MONTH_OF_YEAR, 1, TextStyle.FULL, locale);
+    }
+
+    /**
+     * A source blocking its first lookup until released, so that the cache can be replaced meanwhile.
+     */
+    private static final class BlockingSource implements TextSource {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        private final AtomicBoolean blocked = new AtomicBoolean();
+
+        @Override
+        public String[][] getTexts(TemporalField field, Locale locale) {
+            if (blocked.compareAndSet(false, true)) {
+                entered.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Starts a miss building the stores of a locale, and waits until it blocks in the source.
+     */
+    private static Future<?> startBlockedMiss(final AndroidDateTimeTextProvider provider, BlockingSource source,
+            ExecutorService executor) throws InterruptedException {
+        Future<?> miss = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                use(provider, LOCALES[0]);
+            }
+        });
+        source.entered.await();
+        return miss;
+    }
+
+    @Test
+    public void testBoundedCacheEvicts() {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .maximumCacheSize(2)
+                .build();
+
+        for (Locale locale : LOCALES) {
+            use(provider, locale);
+        }
+
+        assertEquals(2, provider.getCacheSize());
+        assertTrue(provider.getEvictionCount() >= LOCALES.length - 2);
+    }
+
+    @Test
+    public void testTrimMemory() {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider();
+        for (Locale locale : LOCALES) {
+            use(provider, locale);
+        }
+        int size = provider.getCacheSize();
+
+        provider.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertEquals(size / 2, provider.getCacheSize());
+
+        provider.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        assertEquals(0, provider.getCacheSize());
+        assertEquals(size, provider.getEvictionCount());
+    }
+
+    @Test
+    public void testConcurrentMissesBuildOnce() throws Exception {
+        final AtomicInteger creations = new AtomicInteger();
+        final AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .statisticsListener(new StatisticsListener() {
+                    @Override
+                    public void onStoreCreated(TemporalField field, Locale locale, long durationNanos) {
+                        if (field == MONTH_OF_YEAR) {
+                            creations.incrementAndGet();
+                        }
+                    }
+
+                    @Override
+                    public void onStoreEvicted(TemporalField field, Locale locale) {
+                    }
+                })
+                .build();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<Future<String>>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    start.await();
+                    return provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL_STANDALONE, LOCALES[0]);
+                }
+            }));
+        }
+        start.countDown();
+
+        AndroidDateTimeTextProvider expected = new AndroidDateTimeTextProvider();
+        String text = expected.getText(MONTH_OF_YEAR, 4, TextStyle.FULL_STANDALONE, LOCALES[0]);
+        for (Future<String> result : results) {
+            assertEquals(text, result.get());
+        }
+        assertEquals(1, creations.get());
+        assertEquals(8, provider.getStatistics().getHitCount(MONTH_OF_YEAR)
+                + provider.getStatistics().getMissCount(MONTH_OF_YEAR));
+        assertEquals(expected.getCacheSize(), provider.getCacheSize());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testPrewarmCachesStores() throws Exception {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .recordStatistics()
+                .build();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        provider.prewarm(Arrays.asList(LOCALES), Arrays.asList(MONTH_OF_YEAR, DAY_OF_WEEK), executor).get();
+        int size = provider.getCacheSize();
+        long monthMisses = provider.getStatistics().getMissCount(MONTH_OF_YEAR);
+        long dayMisses = provider.getStatistics().getMissCount(DAY_OF_WEEK);
+
+        assertTrue(size >= LOCALES.length * 2);
+        for (Locale locale : LOCALES) {
+            for (TextStyle style : TextStyle.values()) {
+                provider.getText(MONTH_OF_YEAR, 4, style, locale);
+                provider.getText(DAY_OF_WEEK, 4, style, locale);
+            }
+        }
+        assertEquals(size, provider.getCacheSize());
+        assertEquals(monthMisses, provider.getStatistics().getMissCount(MONTH_OF_YEAR));
+        assertEquals(dayMisses, provider.getStatistics().getMissCount(DAY_OF_WEEK));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testOtherFieldsOfLocaleAreBuiltTogether() {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .eagerStores()
+                .build();
+
+        // extracted on every API level, unlike months which may come from ICU
+        provider.getText(AMPM_OF_DAY, 0, TextStyle.FULL, LOCALES[0]);
+
+        assertTrue(provider.getCacheSize() > 1);
+    }
+
+    @Test
+    public void testEquivalentLocalesShareStores() {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider();
+        String text = provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL_STANDALONE, LOCALES[0]);
+        int size = provider.getCacheSize();
+
+        Locale extended = Locale.forLanguageTag("ca-ES-u-nu-latn");
+        assertEquals(text, provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL_STANDALONE, extended));
+        assertEquals(size, provider.getCacheSize());
+    }
+
+    @Test
+    public void testInvalidateRebuildsCachedStores() throws Exception {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider();
+        for (Locale locale : LOCALES) {
+            use(provider, locale);
+        }
+        int size = provider.getCacheSize();
+        String text = provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL_STANDALONE, LOCALES[0]);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        provider.invalidate(executor).get();
+        assertEquals(size, provider.getCacheSize());
+        assertEquals(text, provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL_STANDALONE, LOCALES[0]));
+
+        provider.invalidate(LOCALES[0], executor).get();
+        assertEquals(size, provider.getCacheSize());
+        assertEquals(text, provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL_STANDALONE, LOCALES[0]));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testPrebuildCachesAllLocalesAtOnce() throws Exception {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider();
+        AndroidDateTimeTextProvider expected = new AndroidDateTimeTextProvider();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        provider.prebuild(Arrays.asList(LOCALES), Arrays.asList(MONTH_OF_YEAR, DAY_OF_WEEK), executor).get();
+
+        assertEquals(LOCALES.length * 2, provider.getCacheSize());
+        for (Locale locale : LOCALES) {
+            for (TextStyle style : TextStyle.values()) {
+                assertEquals(expected.getText(MONTH_OF_YEAR, 4, style, locale),
+                        provider.getText(MONTH_OF_YEAR, 4, style, locale));
+                assertEquals(expected.getText(DAY_OF_WEEK, 4, style, locale),
+                        provider.getText(DAY_OF_WEEK, 4, style, locale));
+            }
+        }
+        assertEquals(LOCALES.length * 2, provider.getCacheSize());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testPrebuildKeepsCachedStores() throws Exception {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .maximumCacheSize(LOCALES.length)
+                .build();
+        use(provider, LOCALES[0]);
+        int size = provider.getCacheSize();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        provider.prebuild(Arrays.asList(LOCALES[0], LOCALES[0]), Arrays.asList(MONTH_OF_YEAR), executor).get();
+        assertEquals(size, provider.getCacheSize());
+
+        provider.prebuild(Arrays.asList(LOCALES), Arrays.asList(MONTH_OF_YEAR, DAY_OF_WEEK), executor).get();
+        assertEquals(LOCALES.length, provider.getCacheSize());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testReadMostlyCacheEvicts() {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .readMostlyCache()
+                .maximumCacheSize(2)
+                .build();
+        AndroidDateTimeTextProvider expected = new AndroidDateTimeTextProvider();
+
+        for (int i = 0; i < 3; i++) {
+            for (Locale locale : LOCALES) {
+                assertEquals(expected.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, locale),
+                        provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, locale));
+            }
+        }
+
+        assertEquals(2, provider.getCacheSize());
+        provider.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        assertEquals(0, provider.getCacheSize());
+        assertEquals(expected.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, LOCALES[0]),
+                provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, LOCALES[0]));
+    }
+
+    @Test
+    public void testReadMostlyCacheSharesEntriesOfVariants() {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .readMostlyCache()
+                .recordStatistics()
+                .build();
+        String text = provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, LOCALES[0]);
+        int size = provider.getCacheSize();
+
+        for (int i = 0; i < 300; i++) {
+            Locale variant = new Locale(LOCALES[0].getLanguage(), LOCALES[0].getCountry(), "V" + i);
+            assertEquals(text, provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, variant));
+        }
+
+        assertEquals(size, provider.getCacheSize());
+        assertEquals(1, provider.getStatistics().getMissCount(MONTH_OF_YEAR));
+    }
+
+    @Test
+    public void testVariantHitsLastLookup() {
+        Locale variant = new Locale(LOCALES[0].getLanguage(), LOCALES[0].getCountry(), "V");
+        Locale extended = Locale.forLanguageTag(LOCALES[0].toLanguageTag() + "-u-nu-latn");
+
+        for (Locale locale : Arrays.asList(variant, extended)) {
+            AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider();
+            LocaleResolver resolver = provider.getLocaleResolver();
+            String text = provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, locale);
+            resolver.trim();
+
+            assertEquals(text, provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, locale));
+            assertFalse(resolver.isMemoized(locale));
+        }
+    }
+
+    @Test
+    public void testReadMostlyCacheHitsDoNotResolve() {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .readMostlyCache()
+                .build();
+        Locale variant = new Locale(LOCALES[0].getLanguage(), LOCALES[0].getCountry(), "V");
+        String text = provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, LOCALES[0]);
+        assertEquals(text, provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, variant));
+        LocaleResolver resolver = provider.getLocaleResolver();
+        resolver.trim();
+
+        assertEquals(text, provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, LOCALES[0]));
+        assertEquals(text, provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, variant));
+        assertFalse(resolver.isMemoized(LOCALES[0]));
+        assertFalse(resolver.isMemoized(variant));
+    }
+
+    @Test
+    public void testEvictedTextsAreExtractedAgain() {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider();
+        String text = provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL_STANDALONE, LOCALES[0]);
+
+        provider.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+
+        assertEquals(text, provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL_STANDALONE, LOCALES[0]));
+    }
+
+    @Test
+    public void testInvalidateKeepsStoresBuiltMeanwhile() throws Exception {
+        BlockingSource source = new BlockingSource();
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .textSource(source)
+                .recordStatistics()
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> miss = startBlockedMiss(provider, source, executor);
+
+        provider.invalidate(LOCALES[1], executor).get();
+        source.released.countDown();
+        miss.get();
+
+        use(provider, LOCALES[0]);
+        assertEquals(1, provider.getStatistics().getMissCount(MONTH_OF_YEAR));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testInvalidatedLocaleBuiltMeanwhileBuiltAgain() throws Exception {
+        BlockingSource source = new BlockingSource();
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .textSource(source)
+                .recordStatistics()
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> miss = startBlockedMiss(provider, source, executor);
+
+        provider.invalidate(LOCALES[0], executor).get();
+        source.released.countDown();
+        miss.get();
+
+        use(provider, LOCALES[0]);
+        assertEquals(2, provider.getStatistics().getMissCount(MONTH_OF_YEAR));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testPrebuildKeepsStoresBuiltMeanwhile() throws Exception {
+        BlockingSource source = new BlockingSource();
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .textSource(source)
+                .recordStatistics()
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> miss = startBlockedMiss(provider, source, executor);
+
+        provider.prebuild(Arrays.asList(LOCALES[1]), Arrays.asList(MONTH_OF_YEAR), executor).get();
+        source.released.countDown();
+        miss.get();
+
+        use(provider, LOCALES[0]);
+        assertEquals(1, provider.getStatistics().getMissCount(MONTH_OF_YEAR));
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,118 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.sergiandreplace.androiddatetimetextprovider.AndroidDateTimeTextProvider.LocaleStore;
+import java.text.ParsePosition;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map.Entry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.IsoFields;
+import org.threeten.bp.temporal.TemporalField;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.threeten.bp.temporal.ChronoField.AMPM_OF_DAY;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_WEEK;
+import static org.threeten.bp.temporal.ChronoField.ERA;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class CompactStoreTest {
+
+    private static final TemporalField[] FIELDS = {
+            MONTH_OF_YEAR, DAY_OF_WEEK, AMPM_OF_DAY, ERA, IsoFields.QUARTER_OF_YEAR};
+
+    private static final Locale[] LOCALES = {
+            new Locale("ca", "ES"),
+            new Locale("pl", "PL"),
+            new Locale("ru", "RU"),
+            Locale.US
+    };
+
+    private final AndroidDateTimeTextProvider standard = new AndroidDateTimeTextProvider();
+    private final AndroidDateTimeTextProvider compact = new AndroidDateTimeTextProvider.Builder()
+            .compactStores()
+            .build();
+
+    @Test
+    public void testCompactStoresAppendSameTexts() {
+        char[] chars = new char[64];
+        for (Locale locale : LOCALES) {
+            for (TemporalField field : FIELDS) {
+                for (TextStyle style : TextStyle.values()) {
+                    for (int value = 0; value <= 13; value++) {
+                        String text = standard.getText(field, value, style, locale);
+                        StringBuilder buf = new StringBuilder();
+
+                        assertEquals(text != null, compact.appendText(field, value, style, locale, buf));
+                        assertEquals(text != null ? text : "", buf.toString());
+                        int length = compact.getChars(field, value, style, locale, chars, 0);
+                        assertEquals(text != null ? text : "", length < 0 ? "" : new String(chars, 0, length));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCompactStoresParseAndGetSameTexts() {
+        for (Locale locale : LOCALES) {
+            for (TemporalField field : FIELDS) {
+                for (TextStyle style : TextStyle.values()) {
+                    Iterator<Entry<String, Long>> iterator = standard.getTextIterator(field, style, locale);
+                    while (iterator != null && iterator.hasNext()) {
+                        Entry<String, Long> entry = iterator.next();
+                        ParsePosition position = new ParsePosition(0);
+
+                        assertEquals(entry.getValue(), compact.parseText(field, entry.getKey(), position, style,
+                                locale, TextMatching.EXACT));
+                        assertEquals(entry.getKey().length(), position.getIndex());
+                        assertEquals(entry.getKey(), compact.getText(field, entry.getValue(), style, locale));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCompactStoresRetainLessMemory() {
+        AndroidDateTimeTextProvider standard = new AndroidDateTimeTextProvider.Builder()
+                .recordStatistics()
+                .build();
+        AndroidDateTimeTextProvider compact = new AndroidDateTimeTextProvider.Builder()
+                .compactStores()
+                .recordStatistics()
+                .build();
+        StringBuilder buf = new StringBuilder();
+        for (TextStyle style : TextStyle.values()) {
+            standard.appendText(MONTH_OF_YEAR, 1, style, LOCALES[0], buf);
+            compact.appendText(MONTH_OF_YEAR, 1, style, LOCALES[0], buf);
+        }
+
+        long standardBytes = standard.getStatistics().getRetainedBytes().get(LOCALES[0]);
+        long compactBytes = compact.getStatistics().getRetainedBytes().get(LOCALES[0]);
+        assertTrue(compactBytes < standardBytes);
+    }
+
+    @Test
+    public void testMaterializedCompactStoreKeepsTextsPacked() {
+        String[][] styleTexts = new LocaleTextExtractor(LOCALES[0]).extract(MONTH_OF_YEAR);
+        LocaleStore store = new LocaleStore(PackedTexts.pack(styleTexts), 1).materialize();
+        String full = styleTexts[TextStyle.FULL.ordinal()][3];
+
+        assertEquals(4, store.getValue(full, 0, full.length(), TextStyle.FULL));
+        assertEquals(4, store.getValue(full, 0, full.length(), null));
+        for (TextStyle style : TextStyle.values()) {
+            assertTrue(store.hasParseList(style));
+            assertFalse(store.hasTexts(style));
+        }
+
+        assertEquals(full, store.getText(4, TextStyle.FULL));
+        assertTrue(store.hasTexts(TextStyle.FULL));
+        assertFalse(store.hasTexts(TextStyle.SHORT));
+    }
+}
@@ -0,0 +1,37 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertNull;
+
+/**
+ * Helpers for tests checking that instances are released.
+ */
+final class GarbageCollection {
+
+    /** Maximum number of collections to wait for a reference to be cleared. */
+    private static final int MAX_COLLECTIONS = 20;
+
+    private GarbageCollection() {
+    }
+
+    /**
+     * Collects garbage until the reference is cleared, failing if it never is.
+     * <p>
+     * A collection request is only a hint, on ART as on the JVM, so finalization is run
+     * and the request repeated, waiting a little longer each time for concurrent collectors.
+     *
+     * @param reference the reference to the instance expected to be unreachable, not null
+     * @throws InterruptedException if interrupted while waiting
+     */
+    static void assertCollected(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < MAX_COLLECTIONS && reference.get() != null; i++) {
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+            if (reference.get() != null) {
+                Thread.sleep(i + 1);
+            }
+        }
+        assertNull(reference.get());
+    }
+}
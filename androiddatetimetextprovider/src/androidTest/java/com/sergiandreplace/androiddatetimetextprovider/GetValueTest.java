@@ -0,0 +1,86 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.text.ParsePosition;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.TemporalField;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.threeten.bp.temporal.ChronoField.AMPM_OF_DAY;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_WEEK;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class GetValueTest {
+
+    private static final Locale[] LOCALES = {
+            new Locale("ca", "ES"),
+            new Locale("pl", "PL"),
+            new Locale("ru", "RU"),
+            Locale.US
+    };
+
+    private final AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider();
+
+    private void assertValues(TemporalField field, int minValue, int maxValue) {
+        for (Locale locale : LOCALES) {
+            for (TextStyle style : TextStyle.values()) {
+                for (int value = minValue; value <= maxValue; value++) {
+                    String text = provider.getText(field, value, style, locale);
+                    if (text == null) {
+                        continue;  // no text to look up, such as narrow am/pm in some locales
+                    }
+                    Long expected = provider.parseText(field, text, new ParsePosition(0), style, locale);
+                    assertEquals(expected, provider.getValue(field, text, style, locale));
+                    assertEquals(expected, provider.getValue(field, "<" + text + ">", 1, text.length() + 1, style, locale));
+                }
+            }
+        }
+    }
+
+    private boolean isTextOfOtherMonth(String text, int month, Locale locale) {
+        for (TextStyle style : TextStyle.values()) {
+            for (int value = 1; value <= 12; value++) {
+                if (value != month && text.equals(provider.getText(MONTH_OF_YEAR, value, style, locale))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testGetValueMatchesParsing() {
+        assertValues(MONTH_OF_YEAR, 1, 12);
+        assertValues(DAY_OF_WEEK, 1, 7);
+        assertValues(AMPM_OF_DAY, 0, 1);
+    }
+
+    @Test
+    public void testGetValueOfAllStyles() {
+        for (TextStyle style : TextStyle.values()) {
+            String text = provider.getText(MONTH_OF_YEAR, 4, style, LOCALES[0]);
+            if (text != null && !isTextOfOtherMonth(text, 4, LOCALES[0])) {  // else any of the months may match
+                assertEquals(Long.valueOf(4), provider.getValue(MONTH_OF_YEAR, text, null, LOCALES[0]));
+            }
+        }
+    }
+
+    @Test
+    public void testGetValueOfOtherText() {
+        String text = provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, LOCALES[0]);
+
+        assertNull(provider.getValue(MONTH_OF_YEAR, text + "x", TextStyle.FULL, LOCALES[0]));
+        assertNull(provider.getValue(MONTH_OF_YEAR, text, 0, text.length() - 1, TextStyle.FULL, LOCALES[0]));
+        assertNull(provider.getValue(MONTH_OF_YEAR, "", TextStyle.FULL, LOCALES[0]));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetValueOutOfRange() {
+        provider.getValue(MONTH_OF_YEAR, "abc", 2, 4, TextStyle.FULL, LOCALES[0]);
+    }
+}
@@ -0,0 +1,105 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.IsoFields;
+import org.threeten.bp.temporal.TemporalField;
+
+import static com.sergiandreplace.androiddatetimetextprovider.GarbageCollection.assertCollected;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.threeten.bp.temporal.ChronoField.AMPM_OF_DAY;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_WEEK;
+import static org.threeten.bp.temporal.ChronoField.ERA;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class LazyStoreTest {
+
+    private static final TemporalField[] FIELDS = {
+            MONTH_OF_YEAR, DAY_OF_WEEK, AMPM_OF_DAY, ERA, IsoFields.QUARTER_OF_YEAR};
+
+    private static final Locale[] LOCALES = {
+            new Locale("ca", "ES"),
+            new Locale("pl", "PL"),
+            new Locale("ru", "RU"),
+            Locale.US
+    };
+
+    private final AndroidDateTimeTextProvider eager = new AndroidDateTimeTextProvider.Builder()
+            .eagerStores()
+            .build();
+    private final AndroidDateTimeTextProvider lazy = new AndroidDateTimeTextProvider();
+
+    private static List<String> toList(Iterator<Entry<String, Long>> iterator) {
+        List<String> list = new ArrayList<String>();
+        while (iterator != null && iterator.hasNext()) {
+            list.add(iterator.next().toString());
+        }
+        return list;
+    }
+
+    private static WeakReference<LocaleTextExtractor> peek(SharedExtractor extractor) {
+        assertNotNull(extractor.peek());
+        return new WeakReference<LocaleTextExtractor>(extractor.peek());
+    }
+
+    @Test
+    public void testLazyStoresMatchEagerStores() {
+        for (Locale locale : LOCALES) {
+            for (TemporalField field : FIELDS) {
+                // narrow first, so that styles are loaded out of order
+                for (int i = TextStyle.values().length - 1; i >= 0; i--) {
+                    TextStyle style = TextStyle.values()[i];
+                    for (int value = 0; value <= 12; value++) {
+                        assertEquals(eager.getText(field, value, style, locale),
+                                lazy.getText(field, value, style, locale));
+                    }
+                    assertEquals(toList(eager.getTextIterator(field, style, locale)),
+                            toList(lazy.getTextIterator(field, style, locale)));
+                }
+                assertEquals(toList(eager.getTextIterator(field, null, locale)),
+                        toList(lazy.getTextIterator(field, null, locale)));
+            }
+        }
+    }
+
+    @Test
+    public void testLazyMissCachesAllFieldsOfLocale() {
+        lazy.getText(ERA, 1, TextStyle.FULL, LOCALES[0]);
+        assertEquals(FIELDS.length, lazy.getCacheSize());
+
+        // the stores share the extractor of the miss, and still load their own texts
+        for (TemporalField field : FIELDS) {
+            assertEquals(eager.getText(field, 1, TextStyle.SHORT, LOCALES[0]),
+                    lazy.getText(field, 1, TextStyle.SHORT, LOCALES[0]));
+        }
+        assertEquals(FIELDS.length, lazy.getCacheSize());
+    }
+
+    @Test
+    public void testExtractorReleasedAfterMiss() throws InterruptedException {
+        SharedExtractor extractor = new SharedExtractor(LOCALES[0], Tracer.NONE);
+        String[] months = extractor.extract(MONTH_OF_YEAR, TextStyle.FULL);
+        WeakReference<LocaleTextExtractor> held = peek(extractor);
+
+        extractor.release();
+        assertCollected(held);
+        assertNull(extractor.peek());
+
+        // a style loaded later extracts again, without holding the extractor
+        assertArrayEquals(months, extractor.extract(MONTH_OF_YEAR, TextStyle.FULL));
+        held = peek(extractor);
+        assertCollected(held);
+    }
+}
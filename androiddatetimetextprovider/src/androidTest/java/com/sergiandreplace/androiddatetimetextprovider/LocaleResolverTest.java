@@ -0,0 +1,63 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class LocaleResolverTest {
+
+    private static final Locale CATALAN = new Locale("ca", "ES");
+
+    @Test
+    public void testExtensionsAndVariantsResolveToParent() {
+        LocaleResolver resolver = new LocaleResolver();
+        Locale resolved = resolver.resolve(CATALAN);
+
+        assertEquals(resolved, resolver.resolve(Locale.forLanguageTag("ca-ES-u-nu-latn")));
+        assertEquals(resolved, resolver.resolve(new Locale("ca", "ES", "XYZZY")));
+    }
+
+    @Test
+    public void testMemoBounded() {
+        LocaleResolver resolver = new LocaleResolver();
+        Locale resolved = resolver.resolve(CATALAN);
+
+        for (int i = 0; i < LocaleResolver.MAX_RESOLUTIONS * 4; i++) {
+            assertEquals(resolved, resolver.resolve(new Locale("ca", "ES", "V" + i)));
+            assertTrue(resolver.size() <= LocaleResolver.MAX_RESOLUTIONS);
+        }
+    }
+
+    @Test
+    public void testLocalesInUseSurvivePastBound() {
+        LocaleResolver resolver = new LocaleResolver();
+        Locale resolved = resolver.resolve(CATALAN);
+
+        for (int i = 0; i < LocaleResolver.MAX_RESOLUTIONS * 4; i++) {
+            resolver.resolve(new Locale("ca", "ES", "V" + i));
+            assertEquals(resolved, resolver.resolve(CATALAN));
+            assertTrue(resolver.isMemoized(CATALAN));
+        }
+        assertEquals(LocaleResolver.MAX_RESOLUTIONS, resolver.size());
+        // only some of the locales used once are forgotten, not all of them at once
+        assertTrue(resolver.isMemoized(new Locale("ca", "ES", "V" + (LocaleResolver.MAX_RESOLUTIONS * 4 - 1))));
+    }
+
+    @Test
+    public void testTrimForgetsResolutions() {
+        LocaleResolver resolver = new LocaleResolver();
+        Locale resolved = resolver.resolve(CATALAN);
+        resolver.resolve(new Locale("ca", "ES", "V1"));
+
+        resolver.trim();
+
+        assertEquals(0, resolver.size());
+        assertEquals(resolved, resolver.resolve(CATALAN));
+        assertEquals(1, resolver.size());
+    }
+}
@@ -0,0 +1,50 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.TemporalField;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_WEEK;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class LocaleTextExtractorTest {
+
+    private static final Locale[] LOCALES = {
+            new Locale("ca", "ES"),
+            new Locale("pl", "PL"),
+            new Locale("ru", "RU"),
+            Locale.US
+    };
+
+    @Test
+    public void testRejectedPatternIsSkipped() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("", Locale.US);
+
+        assertFalse(LocaleTextExtractor.applyPattern(dateFormat, "'unterminated"));
+        assertTrue(LocaleTextExtractor.applyPattern(dateFormat, "MMMM"));
+        assertEquals("MMMM", dateFormat.toPattern());
+    }
+
+    @Test
+    public void testAllPatternsSupported() {
+        // no style is left to its fallback on Android, as every pattern is supported there
+        for (Locale locale : LOCALES) {
+            LocaleTextExtractor extractor = new LocaleTextExtractor(locale);
+            for (TemporalField field : new TemporalField[] {MONTH_OF_YEAR, DAY_OF_WEEK}) {
+                String[][] styleTexts = extractor.extract(field);
+                for (TextStyle style : TextStyle.values()) {
+                    assertNotNull(locale + " " + field + " " + style, styleTexts[style.ordinal()]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class MainThreadPolicyTest {
+
+    private static final Locale LOCALE = new Locale("ca", "ES");
+
+    private static Object getTextOnMainThread(final AndroidDateTimeTextProvider provider, final TextStyle style) {
+        final AtomicReference<Object> result = new AtomicReference<Object>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result.set(provider.getText(MONTH_OF_YEAR, 4, style, LOCALE));
+                } catch (RuntimeException ex) {
+                    result.set(ex);
+                }
+            }
+        });
+        return result.get();
+    }
+
+    @Test
+    public void testThrowOnMainThread() {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .mainThreadPolicy(MainThreadPolicy.THROW)
+                .build();
+
+        assertTrue(getTextOnMainThread(provider, TextStyle.FULL) instanceof IllegalStateException);
+
+        // other threads are not affected, and then the main thread hits the cache
+        String text = provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, LOCALE);
+        assertEquals(text, getTextOnMainThread(provider, TextStyle.FULL));
+    }
+
+    @Test
+    public void testFallbackOnMainThread() throws Exception {
+        AndroidDateTimeTextProvider expected = new AndroidDateTimeTextProvider();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .mainThreadPolicy(MainThreadPolicy.FALLBACK)
+                .backgroundExecutor(executor)
+                .build();
+
+        assertNotNull(getTextOnMainThread(provider, TextStyle.FULL));
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        for (TextStyle style : TextStyle.values()) {
+            assertEquals(expected.getText(MONTH_OF_YEAR, 4, style, LOCALE), getTextOnMainThread(provider, style));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFallbackNeedsExecutor() {
+        new AndroidDateTimeTextProvider.Builder()
+                .mainThreadPolicy(MainThreadPolicy.FALLBACK)
+                .build();
+    }
+}
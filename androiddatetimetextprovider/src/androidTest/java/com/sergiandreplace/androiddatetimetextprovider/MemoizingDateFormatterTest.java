@@ -0,0 +1,75 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.format.DateTimeFormatter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(AndroidJUnit4.class)
+public class MemoizingDateFormatterTest {
+
+    private static final Locale CATALAN = new Locale("ca", "ES");
+
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEEE d MMMM yyyy", CATALAN);
+
+    @Test
+    public void testFormatMatchesFormatter() {
+        MemoizingDateFormatter memoizing = new MemoizingDateFormatter(formatter, 100);
+        for (int pass = 0; pass < 2; pass++) {
+            for (LocalDate date = LocalDate.of(2019, 11, 1); date.isBefore(LocalDate.of(2021, 3, 1)); date = date.plusDays(1)) {
+                assertEquals(formatter.format(date), memoizing.format(date));
+                assertEquals(formatter.format(date), memoizing.format(date.toEpochDay()));
+            }
+        }
+    }
+
+    @Test
+    public void testFormatBeforeEpoch() {
+        MemoizingDateFormatter memoizing = new MemoizingDateFormatter(formatter, 7);
+        LocalDate date = LocalDate.of(1900, 2, 28);
+        assertEquals(formatter.format(date), memoizing.format(date.toEpochDay()));
+        assertEquals(formatter.format(date.plusDays(8)), memoizing.format(date.plusDays(8)));
+        assertEquals(formatter.format(date), memoizing.format(date));
+    }
+
+    @Test
+    public void testPrecomputeYearKeepsTexts() {
+        MemoizingDateFormatter memoizing = new MemoizingDateFormatter(formatter, 366);
+        memoizing.precomputeYear(2020);
+        LocalDate date = LocalDate.of(2020, 1, 1);
+        String first = memoizing.format(date);
+        assertEquals(formatter.format(date), first);
+        for (int i = 0; i < 366; i++) {
+            assertEquals(formatter.format(date.plusDays(i)), memoizing.format(date.plusDays(i)));
+        }
+        assertSame(first, memoizing.format(date));
+    }
+
+    @Test
+    public void testClear() {
+        MemoizingDateFormatter memoizing = new MemoizingDateFormatter(formatter, 1);
+        LocalDate date = LocalDate.of(2020, 4, 8);
+        String text = memoizing.format(date);
+        assertSame(text, memoizing.format(date));
+        memoizing.clear();
+        assertEquals(text, memoizing.format(date));
+    }
+
+    @Test
+    public void testWithLocale() {
+        MemoizingDateFormatter memoizing = new MemoizingDateFormatter(formatter, 31).withLocale(Locale.US);
+        LocalDate date = LocalDate.of(2020, 4, 8);
+        assertEquals(formatter.withLocale(Locale.US).format(date), memoizing.format(date));
+        assertEquals(32, memoizing.getMaximumSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroMaximumSize() {
+        new MemoizingDateFormatter(formatter, 0);
+    }
+}
@@ -0,0 +1,111 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.text.ParsePosition;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map.Entry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.TemporalField;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_WEEK;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class ParseTextTest {
+
+    private final AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider();
+
+    private void testMatchesIterator(TemporalField field, TextStyle style, Locale locale) {
+        Iterator<Entry<String, Long>> iterator = provider.getTextIterator(field, style, locale);
+        while (iterator.hasNext()) {
+            Entry<String, Long> entry = iterator.next();
+            String text = "1 " + entry.getKey() + " 2020";
+            ParsePosition position = new ParsePosition(2);
+
+            Long value = provider.parseText(field, text, position, style, locale);
+
+            assertEquals(2 + entry.getKey().length(), position.getIndex());
+            if (style != null) {
+                assertEquals(entry.getValue(), value);
+            }
+        }
+    }
+
+    private void testLocale(Locale locale) {
+        for (TextStyle style : TextStyle.values()) {
+            testMatchesIterator(MONTH_OF_YEAR, style, locale);
+            testMatchesIterator(DAY_OF_WEEK, style, locale);
+        }
+    }
+
+    @Test
+    public void testLocalesWithStandaloneMonths() {
+        testLocale(new Locale("ru", "RU"));
+        testLocale(new Locale("ca", "ES"));
+        testLocale(new Locale("pl", "PL"));
+        testLocale(new Locale("fi", "FI"));
+    }
+
+    @Test
+    public void testNoMatch() {
+        ParsePosition position = new ParsePosition(0);
+
+        assertNull(provider.parseText(MONTH_OF_YEAR, "xyz", position, TextStyle.FULL, Locale.ENGLISH));
+        assertEquals(0, position.getIndex());
+        assertEquals(0, position.getErrorIndex());
+    }
+
+    @Test
+    public void testLongestMatch() {
+        ParsePosition position = new ParsePosition(0);
+
+        Long value = provider.parseText(MONTH_OF_YEAR, "June", position, null, Locale.ENGLISH);
+
+        assertEquals(Long.valueOf(6), value);
+        assertEquals(4, position.getIndex());
+    }
+
+    @Test
+    public void testCaseInsensitive() {
+        ParsePosition position = new ParsePosition(0);
+
+        Long value = provider.parseText(MONTH_OF_YEAR, "JUNE", position, TextStyle.FULL, Locale.ENGLISH,
+                TextMatching.CASE_INSENSITIVE);
+
+        assertEquals(Long.valueOf(6), value);
+        assertEquals(4, position.getIndex());
+        assertNull(provider.parseText(MONTH_OF_YEAR, "JUNE", new ParsePosition(0), TextStyle.FULL, Locale.ENGLISH,
+                TextMatching.EXACT));
+    }
+
+    @Test
+    public void testLenientIgnoresAccents() {
+        Locale french = Locale.FRANCE;
+        String february = provider.getText(MONTH_OF_YEAR, 2, TextStyle.FULL, french);
+        String input = february.replace('\u00e9', 'e').toUpperCase(french);
+        ParsePosition position = new ParsePosition(0);
+
+        Long value = provider.parseText(MONTH_OF_YEAR, input, position, TextStyle.FULL, french, TextMatching.LENIENT);
+
+        assertEquals(Long.valueOf(2), value);
+        assertEquals(input.length(), position.getIndex());
+    }
+
+    @Test
+    public void testLenientConsumesCombiningAccents() {
+        Locale french = Locale.FRANCE;
+        String february = provider.getText(MONTH_OF_YEAR, 2, TextStyle.FULL, french);
+        String input = february.replace("\u00e9", "e\u0301");
+        ParsePosition position = new ParsePosition(0);
+
+        Long value = provider.parseText(MONTH_OF_YEAR, input, position, TextStyle.FULL, french, TextMatching.LENIENT);
+
+        assertEquals(Long.valueOf(2), value);
+        assertEquals(input.length(), position.getIndex());
+    }
+}
@@ -0,0 +1,171 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import android.os.Build;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.TemporalField;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.junit.Assert.assertTrue;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_MONTH;
+import static org.threeten.bp.temporal.ChronoField.ERA;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class StatisticsTest {
+
+    private static final Locale LOCALE = new Locale("ca", "ES");
+
+    @Test
+    public void testHitsAndMisses() {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .recordStatistics()
+                .build();
+
+        provider.getText(MONTH_OF_YEAR, 1, TextStyle.FULL, LOCALE);
+        provider.getText(MONTH_OF_YEAR, 2, TextStyle.FULL, LOCALE);
+        provider.getText(MONTH_OF_YEAR, 3, TextStyle.FULL, LOCALE);
+        provider.getText(DAY_OF_MONTH, 3, TextStyle.FULL, LOCALE);
+
+        ProviderStatistics statistics = provider.getStatistics();
+        assertEquals(1, statistics.getMissCount(MONTH_OF_YEAR));
+        assertEquals(2, statistics.getHitCount(MONTH_OF_YEAR));
+        assertEquals(1, statistics.getUnsupportedFieldCount());
+        assertEquals(Integer.valueOf(provider.getCacheSize()), statistics.getStoreCounts().get(LOCALE));
+        assertTrue(statistics.getRetainedBytes().get(LOCALE) > 0);
+        // from ICU, or the creation of a lazy store then the extraction of the full style
+        assertEquals(Build.VERSION.SDK_INT >= 24 ? 1 : 2, sum(statistics.getCreationTimeHistogram(MONTH_OF_YEAR)));
+    }
+
+    @Test
+    public void testRetriedMissCountedOnce() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        final AtomicBoolean failed = new AtomicBoolean();
+        final AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .recordStatistics()
+                .textSource(new TextSource() {
+                    @Override
+                    public String[][] getTexts(TemporalField field, Locale locale) {
+                        if (failed.compareAndSet(false, true)) {
+                            entered.countDown();
+                            try {
+                                released.await();
+                            } catch (InterruptedException ex) {
+                                Thread.currentThread().interrupt();
+                            }
+                            throw new IllegalStateException("first build fails");
+                        }
+                        return null;
+                    }
+                })
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> failing = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                provider.getText(MONTH_OF_YEAR, 1, TextStyle.FULL, LOCALE);
+            }
+        });
+        entered.await();
+        Future<?> waiting = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                provider.getText(MONTH_OF_YEAR, 1, TextStyle.FULL, LOCALE);
+            }
+        });
+        while (provider.getStatistics().getMissCount(MONTH_OF_YEAR) < 2) {
+            Thread.yield();  // until the second lookup waits for the failing build
+        }
+
+        released.countDown();
+        try {
+            failing.get();
+            fail();
+        } catch (ExecutionException ex) {
+            // the build of the first lookup failed
+        }
+        waiting.get();
+
+        // the second lookup built the store after waiting, still a single miss
+        assertEquals(2, provider.getStatistics().getMissCount(MONTH_OF_YEAR));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testStyleLoadsAreTimedButNotReported() {
+        final List<TemporalField> created = new ArrayList<TemporalField>();
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .recordStatistics()
+                .statisticsListener(new StatisticsListener() {
+                    @Override
+                    public void onStoreCreated(TemporalField field, Locale locale, long durationNanos) {
+                        created.add(field);
+                    }
+
+                    @Override
+                    public void onStoreEvicted(TemporalField field, Locale locale) {
+                    }
+                })
+                .build();
+
+        provider.getText(ERA, 1, TextStyle.FULL, LOCALE);
+        provider.getText(ERA, 1, TextStyle.SHORT, LOCALE);
+        provider.getText(ERA, 0, TextStyle.SHORT, LOCALE);
+
+        // the creation of the lazy store, then the extraction of each style
+        assertEquals(3, sum(provider.getStatistics().getCreationTimeHistogram(ERA)));
+        assertEquals(1, Collections.frequency(created, ERA));
+    }
+
+    @Test
+    public void testListener() {
+        final List<TemporalField> created = new ArrayList<TemporalField>();
+        final List<TemporalField> evicted = new ArrayList<TemporalField>();
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .statisticsListener(new StatisticsListener() {
+                    @Override
+                    public void onStoreCreated(TemporalField field, Locale locale, long durationNanos) {
+                        created.add(field);
+                    }
+
+                    @Override
+                    public void onStoreEvicted(TemporalField field, Locale locale) {
+                        evicted.add(field);
+                    }
+                })
+                .build();
+
+        provider.getText(MONTH_OF_YEAR, 1, TextStyle.FULL, LOCALE);
+        provider.onTrimMemory(80);
+
+        assertTrue(created.contains(MONTH_OF_YEAR));
+        assertEquals(created.size(), evicted.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDisabledByDefault() {
+        new AndroidDateTimeTextProvider().getStatistics();
+    }
+
+    private static long sum(long[] histogram) {
+        long sum = 0;
+        for (long count : histogram) {
+            sum += count;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,97 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.sergiandreplace.androiddatetimetextprovider.AndroidDateTimeTextProvider.LocaleStore;
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.TemporalField;
+
+import static com.sergiandreplace.androiddatetimetextprovider.GarbageCollection.assertCollected;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class StoreInternerTest {
+
+    /**
+     * Serves months named after the language of the locale, as new strings on every call.
+     */
+    private static final TextSource SOURCE = new TextSource() {
+        @Override
+        public String[][] getTexts(TemporalField field, Locale locale) {
+            return field == MONTH_OF_YEAR ? styleTexts(locale.getLanguage()) : null;
+        }
+    };
+
+    private static String[][] styleTexts(String prefix) {
+        String[][] styleTexts = new String[TextStyle.values().length][];
+        String[] full = new String[12];
+        String[] shortTexts = new String[12];
+        for (int i = 0; i < 12; i++) {
+            full[i] = prefix + " month " + (i + 1);
+            shortTexts[i] = prefix + (i + 1);
+        }
+        styleTexts[TextStyle.FULL.ordinal()] = full;
+        styleTexts[TextStyle.SHORT.ordinal()] = shortTexts;
+        return styleTexts;
+    }
+
+    private static WeakReference<LocaleStore> internUnused(StoreInterner interner) {
+        return new WeakReference<LocaleStore>(interner.intern(styleTexts("ca"), 1));
+    }
+
+    @Test
+    public void testEqualInstancesShared() {
+        StoreInterner interner = new StoreInterner();
+
+        LocaleStore store = interner.intern(styleTexts("ca"), 1);
+
+        assertSame(store, interner.intern(styleTexts("ca"), 1));
+        assertNotSame(store, interner.intern(styleTexts("ca"), 0));
+        assertNotSame(store, interner.intern(styleTexts("pl"), 1));
+        String[] table = interner.internTable(styleTexts("ca")[TextStyle.SHORT.ordinal()]);
+        assertSame(table, interner.internTable(styleTexts("ca")[TextStyle.SHORT.ordinal()]));
+        assertSame(store.getText(4, TextStyle.SHORT), table[3]);
+    }
+
+    @Test
+    public void testUnusedInstancesReleased() throws InterruptedException {
+        StoreInterner interner = new StoreInterner();
+
+        WeakReference<LocaleStore> store = internUnused(interner);
+
+        assertCollected(store);
+        assertEquals(0, interner.size());  // its tables and texts are cleared with it
+    }
+
+    @Test
+    public void testEvictedTextsReleased() throws InterruptedException {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .textSource(SOURCE)
+                .maximumCacheSize(1)
+                .build();
+
+        WeakReference<String> text = new WeakReference<String>(
+                provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, new Locale("ca", "ES")));
+        provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, new Locale("pl", "PL"));
+
+        assertEquals(1, provider.getEvictionCount());
+        assertCollected(text);
+    }
+
+    @Test
+    public void testStoresSharedAcrossLocales() {
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .textSource(SOURCE)
+                .build();
+
+        String text = provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, new Locale("ca", "ES"));
+
+        assertSame(text, provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, new Locale("ca", "AD")));
+    }
+}
@@ -0,0 +1,163 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.threeten.bp.temporal.ChronoField.AMPM_OF_DAY;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class StoreSnapshotsTest {
+
+    private static final Locale LOCALE = new Locale("ca", "ES");
+    private static final String FINGERPRINT = "test/1";
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("snapshots", "");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static String[][] styleTexts() {
+        String[][] styleTexts = new String[TextStyle.values().length][];
+        styleTexts[TextStyle.FULL.ordinal()] = new String[] {"a. m.", "p. m."};
+        styleTexts[TextStyle.FULL_STANDALONE.ordinal()] = styleTexts[TextStyle.FULL.ordinal()];
+        styleTexts[TextStyle.SHORT.ordinal()] = new String[] {"a.m.", "p.m."};
+        return styleTexts;
+    }
+
+    private File snapshotFile() {
+        File[] files = directory.listFiles();
+        assertEquals(1, files.length);
+        return files[0];
+    }
+
+    private void assertCorruptionIgnored(long offset, int value) throws IOException {
+        StoreSnapshots snapshots = new StoreSnapshots(directory, FINGERPRINT, DIRECT);
+        snapshots.save(AMPM_OF_DAY, LOCALE, styleTexts());
+        RandomAccessFile file = new RandomAccessFile(snapshotFile(), "rw");
+        try {
+            file.seek(offset);
+            file.writeInt(value);
+        } finally {
+            file.close();
+        }
+        assertNull(snapshots.load(AMPM_OF_DAY, LOCALE));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        StoreSnapshots snapshots = new StoreSnapshots(directory, FINGERPRINT, DIRECT);
+        String[][] saved = styleTexts();
+
+        snapshots.save(AMPM_OF_DAY, LOCALE, saved);
+        String[][] loaded = snapshots.load(AMPM_OF_DAY, LOCALE);
+
+        assertArrayEquals(saved, loaded);
+        assertSame(loaded[TextStyle.FULL.ordinal()], loaded[TextStyle.FULL_STANDALONE.ordinal()]);
+        assertNull(snapshots.load(MONTH_OF_YEAR, LOCALE));
+        assertNull(snapshots.load(AMPM_OF_DAY, Locale.US));
+    }
+
+    @Test
+    public void testSaveOnWriter() {
+        final List<Runnable> writes = new ArrayList<Runnable>();
+        StoreSnapshots snapshots = new StoreSnapshots(directory, FINGERPRINT, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                writes.add(command);
+            }
+        });
+        String[][] saved = styleTexts();
+
+        snapshots.save(AMPM_OF_DAY, LOCALE, saved);
+        saved[TextStyle.NARROW.ordinal()] = new String[] {"a", "p"};  // filled in by the caller meanwhile
+        assertNull(snapshots.load(AMPM_OF_DAY, LOCALE));
+
+        assertEquals(1, writes.size());
+        writes.get(0).run();
+        saved[TextStyle.NARROW.ordinal()] = null;
+        assertArrayEquals(saved, snapshots.load(AMPM_OF_DAY, LOCALE));
+    }
+
+    @Test
+    public void testOtherFingerprintIgnored() {
+        new StoreSnapshots(directory, FINGERPRINT, DIRECT).save(AMPM_OF_DAY, LOCALE, styleTexts());
+
+        StoreSnapshots updated = new StoreSnapshots(directory, "test/2", DIRECT);
+        assertNull(updated.load(AMPM_OF_DAY, LOCALE));
+
+        updated.save(AMPM_OF_DAY, LOCALE, styleTexts());
+        assertArrayEquals(styleTexts(), updated.load(AMPM_OF_DAY, LOCALE));
+    }
+
+    @Test
+    public void testOtherVersionIgnored() throws IOException {
+        assertCorruptionIgnored(4, 1);
+    }
+
+    @Test
+    public void testCorruptLengthIgnored() throws IOException {
+        assertCorruptionIgnored(8, Integer.MAX_VALUE);  // length of the fingerprint
+    }
+
+    @Test
+    public void testCorruptCountIgnored() throws IOException {
+        long offset = 4 + 4 + 4 + 2 * FINGERPRINT.length() + 4 + 2 * LOCALE.toString().length() + 4;
+        assertCorruptionIgnored(offset, Integer.MAX_VALUE);  // number of texts of the first style
+        assertCorruptionIgnored(offset, -2 - TextStyle.values().length);  // sharing a later style
+    }
+
+    @Test
+    public void testTruncatedFileIgnored() throws IOException {
+        StoreSnapshots snapshots = new StoreSnapshots(directory, FINGERPRINT, DIRECT);
+        snapshots.save(AMPM_OF_DAY, LOCALE, styleTexts());
+        File file = snapshotFile();
+        long length = file.length();
+
+        for (long truncated : new long[] {length - 1, length / 2, 6, 0}) {
+            RandomAccessFile output = new RandomAccessFile(file, "rw");
+            try {
+                output.setLength(truncated);
+            } finally {
+                output.close();
+            }
+            assertNull(snapshots.load(AMPM_OF_DAY, LOCALE));
+        }
+    }
+}
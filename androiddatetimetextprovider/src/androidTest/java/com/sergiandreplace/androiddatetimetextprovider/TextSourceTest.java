@@ -0,0 +1,84 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import android.os.Build;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.TemporalField;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+import static org.threeten.bp.temporal.ChronoField.AMPM_OF_DAY;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_WEEK;
+import static org.threeten.bp.temporal.ChronoField.ERA;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class TextSourceTest {
+
+    private static final Locale[] LOCALES = {
+            new Locale("ca", "ES"),
+            new Locale("pl", "PL"),
+            new Locale("ru", "RU"),
+            Locale.US
+    };
+
+    @Test
+    public void testIcuMatchesExtraction() {
+        assumeTrue(Build.VERSION.SDK_INT >= 24);
+        TextSource icu = new IcuTextSource();
+        for (Locale locale : LOCALES) {
+            LocaleTextExtractor extractor = new LocaleTextExtractor(locale);
+            for (TemporalField field : new TemporalField[] {MONTH_OF_YEAR, DAY_OF_WEEK}) {
+                String[][] expected = extractor.extract(field);
+                String[][] actual = icu.getTexts(field, locale);
+                for (TextStyle style : TextStyle.values()) {
+                    assertArrayEquals(locale + " " + field + " " + style,
+                            expected[style.ordinal()], actual[style.ordinal()]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStaticTablesMatchExtraction() {
+        // only with tables generated, for example with -PtextTableLocales=ca-ES,pl-PL
+        assumeTrue(StaticTextTables.LOCALES.length > 0);
+        TextSource tables = new StaticTableTextSource();
+        for (String tag : StaticTextTables.LOCALES) {
+            Locale locale = Locale.forLanguageTag(tag);
+            LocaleTextExtractor extractor = new LocaleTextExtractor(locale);
+            for (TemporalField field : new TemporalField[] {MONTH_OF_YEAR, DAY_OF_WEEK, AMPM_OF_DAY, ERA}) {
+                String[][] expected = extractor.extract(field);
+                String[][] actual = tables.getTexts(field, locale);
+                for (TextStyle style : TextStyle.values()) {
+                    assertArrayEquals(tag + " " + field + " " + style,
+                            expected[style.ordinal()], actual[style.ordinal()]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCustomSourceComesFirst() {
+        final String[] months = {"1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12"};
+        AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider.Builder()
+                .textSource(new TextSource() {
+                    @Override
+                    public String[][] getTexts(TemporalField field, Locale locale) {
+                        if (field != MONTH_OF_YEAR) {
+                            return null;
+                        }
+                        String[][] styleTexts = new String[TextStyle.values().length][];
+                        styleTexts[TextStyle.FULL.ordinal()] = months;
+                        return styleTexts;
+                    }
+                })
+                .build();
+
+        assertEquals("4", provider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL_STANDALONE, Locale.US));
+    }
+}
@@ -0,0 +1,104 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.text.ParsePosition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.threeten.bp.format.TextStyle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_WEEK;
+import static org.threeten.bp.temporal.ChronoField.ERA;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+@RunWith(AndroidJUnit4.class)
+public class TracingTest {
+
+    private static final Locale LOCALE = new Locale("ca", "ES");
+
+    /**
+     * A tracer keeping the names of the sections begun, and checking they are ended.
+     */
+    private static final class RecordingTracer extends Tracer {
+        final List<String> sections = new ArrayList<String>();
+        int open;
+
+        @Override
+        boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        void begin(String name) {
+            sections.add(name);
+            open++;
+        }
+
+        @Override
+        void endSection() {
+            open--;
+        }
+    }
+
+    private static void assertSection(RecordingTracer tracer, String prefix) {
+        for (String section : tracer.sections) {
+            if (section.startsWith(prefix)) {
+                return;
+            }
+        }
+        throw new AssertionError("no section " + prefix + " in " + tracer.sections);
+    }
+
+    @Test
+    public void testTracedProviderReturnsSameTexts() {
+        AndroidDateTimeTextProvider traced = new AndroidDateTimeTextProvider.Builder()
+                .traceSections()
+                .build();
+        AndroidDateTimeTextProvider expected = new AndroidDateTimeTextProvider();
+
+        for (TextStyle style : TextStyle.values()) {
+            assertEquals(expected.getText(MONTH_OF_YEAR, 4, style, LOCALE),
+                    traced.getText(MONTH_OF_YEAR, 4, style, LOCALE));
+        }
+        String text = expected.getText(DAY_OF_WEEK, 3, TextStyle.FULL, LOCALE);
+        ParsePosition position = new ParsePosition(0);
+        assertEquals(Long.valueOf(3), traced.parseText(DAY_OF_WEEK, text, position, null, LOCALE));
+        assertEquals(text.length(), position.getIndex());
+    }
+
+    @Test
+    public void testSectionsNamedAfterWork() {
+        RecordingTracer tracer = new RecordingTracer();
+        AndroidDateTimeTextProvider traced = new AndroidDateTimeTextProvider.Builder()
+                .traceSections(tracer)
+                .build();
+
+        String text = traced.getText(ERA, 1, TextStyle.FULL, LOCALE);
+        assertSection(tracer, "findStore miss Era " + LOCALE.getLanguage());
+        assertSection(tracer, "createStore Era " + LOCALE.getLanguage());
+        assertSection(tracer, "createStore MonthOfYear " + LOCALE.getLanguage());
+        String last = tracer.sections.get(tracer.sections.size() - 1);  // the style loaded by the lookup
+        assertTrue(last, last.startsWith("extract Era ") && last.endsWith(" FULL"));
+        traced.parseText(ERA, text, new ParsePosition(0), null, LOCALE);
+        assertSection(tracer, "buildTrie Era " + LOCALE.getLanguage());
+        assertEquals(0, tracer.open);
+
+        // hits are never traced
+        int count = tracer.sections.size();
+        traced.getText(ERA, 1, TextStyle.FULL, LOCALE);
+        traced.parseText(ERA, text, new ParsePosition(0), null, LOCALE);
+        assertEquals(count, tracer.sections.size());
+    }
+
+    @Test
+    public void testNoTracingOnJvm() {
+        assumeTrue(!"Dalvik".equals(System.getProperty("java.vm.name")));
+        assertSame(Tracer.NONE, Tracer.create());
+    }
+}
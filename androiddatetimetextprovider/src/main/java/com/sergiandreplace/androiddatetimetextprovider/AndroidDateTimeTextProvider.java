@@ -32,22 +32,38 @@
 package com.sergiandreplace.androiddatetimetextprovider;
 
 import android.os.Build;
+import android.os.Looper;
+import android.util.Log;
+import java.io.File;
+import java.io.IOException;
 import java.text.DateFormatSymbols;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import org.threeten.bp.format.DateTimeTextProvider;
 import org.threeten.bp.format.TextStyle;
 import org.threeten.bp.temporal.IsoFields;
@@ -75,6 +91,11 @@ import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
  * Note that texts for NARROW style can be extracted only on devices with Android 4.3 or higher.
  * On pre-Android 4.3 devices NARROW style texts are emulated
  * by returning only first character of FULL style text.
+ * <p>
+ * Locales listed in the {@code textTableLocales} Gradle property when building the library
+ * are served from tables generated at build time from CLDR data, without any extraction.
+ * On Android 7.0 and later, month and day-of-week texts are read directly from ICU.
+ * Further sources can be plugged in with {@link Builder#textSource(TextSource)}.
  */
 final public class AndroidDateTimeTextProvider extends DateTimeTextProvider {
 
@@ -86,360 +107,2144 @@ final public class AndroidDateTimeTextProvider extends DateTimeTextProvider {
         }
     };
 
-    /** Cache. */
-    private final ConcurrentMap<Entry<TemporalField, Locale>, Object> cache =
-            new ConcurrentHashMap<Entry<TemporalField, Locale>, Object>(16, 0.75f, 2);
+    /** All text styles, indexed by ordinal. */
+    private static final TextStyle[] STYLES = TextStyle.values();
+
+    /** The supported fields, indexed as the per-field caches. */
+    private static final TemporalField[] FIELDS = {
+            MONTH_OF_YEAR, DAY_OF_WEEK, AMPM_OF_DAY, ERA, IsoFields.QUARTER_OF_YEAR};
+    /** The value of the first text of each supported field. */
+    private static final int[] MIN_VALUES = {1, 1, 0, 0, 1};
+
+    /** Tag of the logged warnings. */
+    private static final String TAG = "DateTimeTextProvider";
+    /** Trim level from which the whole cache is released, as {@code ComponentCallbacks2.TRIM_MEMORY_MODERATE}. */
+    private static final int TRIM_MEMORY_MODERATE = 60;
+    /** Trim level from which half of the cache is released, as {@code ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW}. */
+    private static final int TRIM_MEMORY_RUNNING_LOW = 10;
+
+    /** The cache in use, replaced as a whole when invalidated. */
+    private volatile Generation generation = new Generation();
+    /** Number of cache entries evicted so far. */
+    private final AtomicLong evictionCount = new AtomicLong();
+    /** Maximum number of cache entries. */
+    private final int maximumCacheSize;
+    /** Maps equivalent locales to a single cache key. */
+    private final LocaleResolver localeResolver = new LocaleResolver();
+    /** Shared texts and stores, so that locales with the same data do not hold copies. */
+    private final StoreInterner interner = new StoreInterner();
+    /** Sources consulted in turn before snapshots and extraction. */
+    private final TextSource[] sources;
+    /** Persistent snapshots of the stores, null if disabled. */
+    private final StoreSnapshots snapshots;
+    /** Whether stores load all texts and build all parse data when created. */
+    private final boolean eagerStores;
+    /** Whether stores pack their texts into a single array. */
+    private final boolean compactStores;
+    /** Whether lookups read immutable tables, replaced when stores are added or evicted. */
+    private final boolean readMostlyCache;
+    /** Statistics, null if disabled. */
+    private final StatisticsRecorder statistics;
+    /** Marks slow work in system traces, doing nothing unless enabled. */
+    private final Tracer tracer;
+    /** What to do when texts missing from the cache are needed on the main thread. */
+    private final MainThreadPolicy mainThreadPolicy;
+    /** The executor building the texts served by a fallback, null if not needed. */
+    private final Executor backgroundExecutor;
+
+    /**
+     * Creates the provider with an empty cache and the default settings.
+     */
+    public AndroidDateTimeTextProvider() {
+        this(new Builder());
+    }
+
+    private AndroidDateTimeTextProvider(Builder builder) {
+        maximumCacheSize = builder.maximumCacheSize;
+        eagerStores = builder.eagerStores;
+        compactStores = builder.compactStores;
+        readMostlyCache = builder.readMostlyCache;
+        List<TextSource> sourceList = new ArrayList<TextSource>(builder.textSources);
+        sourceList.add(new StaticTableTextSource());
+        if (Build.VERSION.SDK_INT >= 24) {
+            sourceList.add(new IcuTextSource());
+        }
+        sources = sourceList.toArray(new TextSource[sourceList.size()]);
+        snapshots = builder.snapshotDirectory != null
+                ? new StoreSnapshots(builder.snapshotDirectory, Build.FINGERPRINT + "/" + Build.VERSION.SDK_INT,
+                        builder.backgroundExecutor)
+                : null;
+        statistics = builder.recordStatistics
+                ? new StatisticsRecorder(FIELDS, builder.statisticsListener)
+                : null;
+        tracer = builder.tracer;
+        mainThreadPolicy = builder.mainThreadPolicy;
+        backgroundExecutor = builder.backgroundExecutor;
+    }
 
     //-----------------------------------------------------------------------
     @Override
     public String getText(TemporalField field, long value, TextStyle style, Locale locale) {
-        Object store = findStore(field, locale);
-        if (store instanceof LocaleStore) {
-            return ((LocaleStore) store).getText(value, style);
+        LocaleStore store = findStore(field, locale);
+        if (store != null) {
+            return store.getText(value, style);
         }
         return null;
     }
 
+    /**
+     * Appends the text for a field value to a builder, without creating any object.
+     *
+     * @param field the field to get text for, not null
+     * @param value the field value to get text for
+     * @param style the style to get text for, not null
+     * @param locale the locale to get text for, not null
+     * @param buf the builder to append to, not null
+     * @return true if the text was appended, false if there is no text and nothing was appended
+     */
+    public boolean appendText(TemporalField field, long value, TextStyle style, Locale locale, StringBuilder buf) {
+        LocaleStore store = findStore(field, locale);
+        return store != null && store.appendText(value, style, buf);
+    }
+
+    /**
+     * Appends the text for a field value to an appendable, such as a {@code Writer}.
+     *
+     * @param field the field to get text for, not null
+     * @param value the field value to get text for
+     * @param style the style to get text for, not null
+     * @param locale the locale to get text for, not null
+     * @param appendable the appendable to append to, not null
+     * @return true if the text was appended, false if there is no text and nothing was appended
+     * @throws IOException if the appendable fails
+     */
+    public boolean appendText(TemporalField field, long value, TextStyle style, Locale locale, Appendable appendable)
+            throws IOException {
+        LocaleStore store = findStore(field, locale);
+        return store != null && store.appendText(value, style, appendable);
+    }
+
+    /**
+     * Copies the text for a field value into a char array.
+     *
+     * @param field the field to get text for, not null
+     * @param value the field value to get text for
+     * @param style the style to get text for, not null
+     * @param locale the locale to get text for, not null
+     * @param destination the array to copy to, not null
+     * @param offset the index to copy the first char to
+     * @return the number of chars copied, negative if there is no text and nothing was copied
+     * @throws IndexOutOfBoundsException if the text does not fit in the array
+     */
+    public int getChars(TemporalField field, long value, TextStyle style, Locale locale,
+            char[] destination, int offset) {
+        LocaleStore store = findStore(field, locale);
+        return store != null ? store.getChars(value, style, destination, offset) : -1;
+    }
+
+    /**
+     * Appends the texts for many values of a field, looking up the texts of the style only once.
+     * <p>
+     * Values without text are appended as numbers, as {@code DateTimeFormatter} prints them.
+     *
+     * @param field the field to get text for, not null
+     * @param values the field values to get text for, not null
+     * @param style the style to get text for, not null
+     * @param locale the locale to get text for, not null
+     * @param separator the text appended between values, not null
+     * @param buf the builder to append to, not null
+     * @return the number of values appended as text, the others being appended as numbers
+     */
+    public int appendTexts(TemporalField field, long[] values, TextStyle style, Locale locale,
+            CharSequence separator, StringBuilder buf) {
+        LocaleStore store = findStore(field, locale);
+        if (store != null) {
+            return store.appendTexts(values, style, separator, buf);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                buf.append(separator);
+            }
+            buf.append(values[i]);
+        }
+        return 0;
+    }
+
     @Override
     public Iterator<Entry<String, Long>> getTextIterator(TemporalField field, TextStyle style, Locale locale) {
-        Object store = findStore(field, locale);
-        if (store instanceof LocaleStore) {
-            return ((LocaleStore) store).getTextIterator(style);
+        LocaleStore store = findStore(field, locale);
+        if (store == null) {
+            return null;
         }
-        return null;
+        if (tracer.isEnabled() && !store.hasParseList(style)) {
+            tracer.beginSection("buildParseList", field, locale, style != null ? style : "all styles");
+            try {
+                return store.getTextIterator(style);
+            } finally {
+                tracer.endSection();
+            }
+        }
+        return store.getTextIterator(style);
     }
 
-    //-----------------------------------------------------------------------
-    private Object findStore(TemporalField field, Locale locale) {
-        Entry<TemporalField, Locale> key = createEntry(field, locale);
-        Object store = cache.get(key);
+    /**
+     * Parses the text of a field at a position, choosing the longest matching text.
+     * <p>
+     * This is equivalent to trying every text returned by
+     * {@link #getTextIterator(TemporalField, TextStyle, Locale)} in turn,
+     * but matches all of them in a single pass over the input.
+     * On success the index of the position is advanced past the matched text,
+     * otherwise its error index is set to the start position.
+     *
+     * @param field the field to parse, not null
+     * @param text the text to parse, not null
+     * @param position the position to start at, updated with the result, not null
+     * @param style the style to match, null for all parsable text
+     * @param locale the locale to use, not null
+     * @return the value of the matched text, null if no text matches
+     */
+    public Long parseText(TemporalField field, CharSequence text, ParsePosition position,
+            TextStyle style, Locale locale) {
+        return parseText(field, text, position, style, locale, TextMatching.EXACT);
+    }
+
+    /**
+     * Parses the text of a field at a position, choosing the longest matching text
+     * and ignoring differences as specified.
+     * <p>
+     * Case-insensitive parsing compares with texts folded once when first needed,
+     * instead of comparing every text in turn ignoring case as ThreeTen does,
+     * and lenient parsing also ignores accents, for user input.
+     * On success the index of the position is advanced past the matched text,
+     * otherwise its error index is set to the start position.
+     *
+     * @param field the field to parse, not null
+     * @param text the text to parse, not null
+     * @param position the position to start at, updated with the result, not null
+     * @param style the style to match, null for all parsable text
+     * @param locale the locale to use, not null
+     * @param matching how strictly to match, not null
+     * @return the value of the matched text, null if no text matches
+     */
+    public Long parseText(TemporalField field, CharSequence text, ParsePosition position,
+            TextStyle style, Locale locale, TextMatching matching) {
+        if (matching == null) {
+            throw new NullPointerException("matching");
+        }
+        LocaleStore store = findStore(field, locale);
+        int start = position.getIndex();
+        long match;
+        if (store != null && tracer.isEnabled() && !store.hasTrie(style, matching)) {
+            tracer.beginSection("buildTrie", field, locale, style != null ? style : "all styles");
+            try {
+                match = store.match(text, start, style, matching);
+            } finally {
+                tracer.endSection();
+            }
+        } else {
+            match = store != null ? store.match(text, start, style, matching) : -1;
+        }
+        if (match < 0) {
+            position.setErrorIndex(start);
+            return null;
+        }
+        position.setIndex(start + (int) (match >>> 32));
+        return Long.valueOf((int) match);  // values are small enough to be cached
+    }
+
+    /**
+     * Gets the value of a whole text of a field, such as 4 for {@code "d'abril"} in Catalan months.
+     * <p>
+     * This matches exactly, like {@link #parseText(TemporalField, CharSequence, ParsePosition, TextStyle, Locale)}
+     * required to consume the whole text, but looks the text up in a hash index in constant time,
+     * for already tokenized input.
+     *
+     * @param field the field of the text, not null
+     * @param text the text to look up, not null
+     * @param style the style to look up, null for all parsable text
+     * @param locale the locale to use, not null
+     * @return the value of the text, null if no text of the field is equal
+     */
+    public Long getValue(TemporalField field, CharSequence text, TextStyle style, Locale locale) {
+        return getValue(field, text, 0, text.length(), style, locale);
+    }
+
+    /**
+     * Gets the value of a whole text of a field, given as a range of a longer text that is not copied.
+     *
+     * @param field the field of the text, not null
+     * @param text the text containing the text to look up, not null
+     * @param start the index of the first char to look up
+     * @param end the index after the last char to look up
+     * @param style the style to look up, null for all parsable text
+     * @param locale the locale to use, not null
+     * @return the value of the text, null if no text of the field is equal
+     * @throws IndexOutOfBoundsException if the range is not within the text
+     * @see #getValue(TemporalField, CharSequence, TextStyle, Locale)
+     */
+    public Long getValue(TemporalField field, CharSequence text, int start, int end, TextStyle style,
+            Locale locale) {
+        if (start < 0 || end > text.length() || start > end) {
+            throw new IndexOutOfBoundsException("Range " + start + " to " + end + " of length " + text.length());
+        }
+        LocaleStore store = findStore(field, locale);
         if (store == null) {
-            store = createStore(field, locale);
-            cache.putIfAbsent(key, store);
-            store = cache.get(key);
+            return null;
         }
-        return store;
+        long value;
+        if (tracer.isEnabled() && !store.hasIndex(style)) {
+            tracer.beginSection("buildIndex", field, locale, style != null ? style : "all styles");
+            try {
+                value = store.getValue(text, start, end, style);
+            } finally {
+                tracer.endSection();
+            }
+        } else {
+            value = store.getValue(text, start, end, style);
+        }
+        return value >= 0 ? Long.valueOf((int) value) : null;
+    }
+
+    /**
+     * Builds the texts of the given fields and locales in the background.
+     * <p>
+     * The first use of a field in a locale extracts its texts from the platform,
+     * which is slow enough to be noticed on the main thread at start-up.
+     * Calling this method early, for example from {@code Application.onCreate()},
+     * moves that cost to the executor.
+     * All styles are built, even if the provider otherwise builds them when first used.
+     * Fields without text are ignored.
+     *
+     * @param locales the locales to build, not null
+     * @param fields the fields to build, not null
+     * @param executor the executor to build on, not null
+     * @return a future completed when all texts are cached, not null
+     */
+    public Future<Void> prewarm(Collection<Locale> locales, Collection<? extends TemporalField> fields,
+            Executor executor) {
+        final List<Locale> localeList = new ArrayList<Locale>(locales);
+        final List<TemporalField> fieldList = new ArrayList<TemporalField>(fields);
+        FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (Locale locale : localeList) {
+                    for (TemporalField field : fieldList) {
+                        LocaleStore store = findStore(field, locale);
+                        if (store != null) {
+                            store.materialize();
+                        }
+                    }
+                }
+                return null;
+            }
+        });
+        executor.execute(task);
+        return task;
     }
 
-    private Object createStore(TemporalField field, Locale locale) {
-        if (field == MONTH_OF_YEAR) {
-            DateFormatSymbols oldSymbols = DateFormatSymbols.getInstance(locale);
-            Map<TextStyle, Map<Long, String>> styleMap = new HashMap<TextStyle, Map<Long, String>>();
-            SimpleDateFormat dateFormat = new SimpleDateFormat("", locale);
-
-            //Uses the same assumptions about months as SimpleDateTimeTextProvider.
-
-            String[] array = oldSymbols.getMonths();
-            Map<Long, String> map = createMonthsMapFromSymbolsArray(array);
-            styleMap.put(TextStyle.FULL, map);
-
-            array = oldSymbols.getShortMonths();
-            map = createMonthsMapFromSymbolsArray(array);
-            styleMap.put(TextStyle.SHORT, map);
-
-            if (Build.VERSION.SDK_INT >= 18) {
-                map = createMonthsMapFromPattern(dateFormat, "MMMMM");
-                styleMap.put(TextStyle.NARROW, map);
-                map = createMonthsMapFromPattern(dateFormat, "LLLLL");
-                styleMap.put(TextStyle.NARROW_STANDALONE, map);
-            } else {
-                map = createNarrowMonthsMapFromPattern(dateFormat, "MMMM");
-                styleMap.put(TextStyle.NARROW, map);
-                map = createNarrowMonthsMapFromPattern(dateFormat, "LLLL");
-                styleMap.put(TextStyle.NARROW_STANDALONE, map);
-            }
-
-            map = createMonthsMapFromPattern(dateFormat, "LLLL");
-            styleMap.put(TextStyle.FULL_STANDALONE, map);
-
-            map = createMonthsMapFromPattern(dateFormat, "LLL");
-            styleMap.put(TextStyle.SHORT_STANDALONE, map);
-
-            return createLocaleStore(styleMap);
-        }
-        if (field == DAY_OF_WEEK) {
-            DateFormatSymbols oldSymbols = DateFormatSymbols.getInstance(locale);
-            Map<TextStyle, Map<Long, String>> styleMap = new HashMap<TextStyle, Map<Long, String>>();
-            SimpleDateFormat dateFormat = new SimpleDateFormat("", locale);
-
-            String[] array = oldSymbols.getWeekdays();
-            Map<Long, String> map = createDaysMapFromSymbolsArray(array);
-            styleMap.put(TextStyle.FULL, map);
-
-            array = oldSymbols.getShortWeekdays();
-            map = createDaysMapFromSymbolsArray(array);
-            styleMap.put(TextStyle.SHORT, map);
-
-            if (Build.VERSION.SDK_INT >= 18) {
-                map = createDaysMapFromPattern(dateFormat, "EEEEE");
-                styleMap.put(TextStyle.NARROW, map);
-                map = createDaysMapFromPattern(dateFormat, "ccccc");
-                styleMap.put(TextStyle.NARROW_STANDALONE, map);
-            } else {
-                map = createNarrowDaysMapFromPattern(dateFormat, "EEEE");
-                styleMap.put(TextStyle.NARROW, map);
-                map = createNarrowDaysMapFromPattern(dateFormat, "cccc");
-                styleMap.put(TextStyle.NARROW_STANDALONE, map);
-            }
-
-            map = createDaysMapFromPattern(dateFormat, "cccc");
-            styleMap.put(TextStyle.FULL_STANDALONE, map);
-
-            map = createDaysMapFromPattern(dateFormat, "ccc");
-            styleMap.put(TextStyle.SHORT_STANDALONE, map);
-
-            return createLocaleStore(styleMap);
-        }
-        if (field == AMPM_OF_DAY) {
-            DateFormatSymbols oldSymbols = DateFormatSymbols.getInstance(locale);
-            Map<TextStyle, Map<Long, String>> styleMap = new HashMap<TextStyle, Map<Long, String>>();
-            String[] array = oldSymbols.getAmPmStrings();
-            Map<Long, String> map = new HashMap<Long, String>();
-            map.put(0L, array[Calendar.AM]);
-            map.put(1L, array[Calendar.PM]);
-            styleMap.put(TextStyle.FULL, map);
-            styleMap.put(TextStyle.SHORT, map);  // re-use, as we don't have different data
-            return createLocaleStore(styleMap);
-        }
-        if (field == ERA) {
-            DateFormatSymbols oldSymbols = DateFormatSymbols.getInstance(locale);
-            Map<TextStyle, Map<Long, String>> styleMap = new HashMap<TextStyle, Map<Long, String>>();
-            String[] array = oldSymbols.getEras();
-            Map<Long, String> map = new HashMap<Long, String>();
-            map.put(0L, array[GregorianCalendar.BC]);
-            map.put(1L, array[GregorianCalendar.AD]);
-            styleMap.put(TextStyle.SHORT, map);
-            if (locale.getLanguage().equals(Locale.ENGLISH.getLanguage())) {
-                map = new HashMap<Long, String>();
-                map.put(0L, "Before Christ");
-                map.put(1L, "Anno Domini");
-                styleMap.put(TextStyle.FULL, map);
-            } else {
-                // re-use, as we don't have different data
-                styleMap.put(TextStyle.FULL, map);
-            }
-            map = new HashMap<Long, String>();
-            map.put(0L, array[GregorianCalendar.BC].substring(0, 1));
-            map.put(1L, array[GregorianCalendar.AD].substring(0, 1));
-            styleMap.put(TextStyle.NARROW, map);
-            return createLocaleStore(styleMap);
-        }
-        // hard code English quarter text
-        if (field == IsoFields.QUARTER_OF_YEAR) {
-            Map<TextStyle, Map<Long, String>> styleMap = new HashMap<TextStyle, Map<Long, String>>();
-            Map<Long, String> map = new HashMap<Long, String>();
-            map.put(1L, "Q1");
-            map.put(2L, "Q2");
-            map.put(3L, "Q3");
-            map.put(4L, "Q4");
-            styleMap.put(TextStyle.SHORT, map);
-            map = new HashMap<Long, String>();
-            map.put(1L, "1st quarter");
-            map.put(2L, "2nd quarter");
-            map.put(3L, "3rd quarter");
-            map.put(4L, "4th quarter");
-            styleMap.put(TextStyle.FULL, map);
-            return createLocaleStore(styleMap);
-        }
-        return "";  // null marker for map
-    }
-
-    private Long calMonthToThreeTenMonth(int calMonth) {
-        //Calendar months are from 0 (JANUARY) to 11 (DECEMBER)
-        //ThreeTen months are from 1 (JANUARY) to 12 (DECEMBER)
+    /**
+     * Builds the texts of the given fields and many locales in parallel, and caches them all at once.
+     * <p>
+     * Unlike {@link #prewarm(Collection, Collection, Executor)}, which builds one locale after the other
+     * in a single task, each locale is built in a task of its own, so with a pool of threads
+     * the time taken depends on the number of threads rather than on the number of locales.
+     * The built stores are kept aside until all tasks have finished, and then start being used
+     * together, so lookups in the meantime see either none or all of them.
+     * Stores already cached are kept, and at most the maximum cache size of stores are kept in total.
+     * All styles are built. Fields without text are ignored.
+     * <p>
+     * If a locale fails to build, the other locales are still cached, and the future throws the failure.
+     *
+     * @param locales the locales to build, not null
+     * @param fields the fields to build, not null
+     * @param executor the executor to build on, usually a pool of threads, not null
+     * @return a future completed when all texts are cached, not null
+     */
+    public Future<Void> prebuild(Collection<Locale> locales, Collection<? extends TemporalField> fields,
+            Executor executor) {
+        final List<Integer> fieldIndexes = new ArrayList<Integer>();
+        for (TemporalField field : fields) {
+            int index = fieldIndex(field);
+            if (index >= 0 && !fieldIndexes.contains(index)) {
+                fieldIndexes.add(index);
+            }
+        }
+        final Queue<CachedStore> built = new ConcurrentLinkedQueue<CachedStore>();
+        final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+        final FutureTask<Void> install = new FutureTask<Void>(new Callable<Void>() {
+            @Override
+            public Void call() {
+                Generation current;
+                Generation installed;
+                do {
+                    current = generation;
+                    installed = install(current, built);
+                } while (!replaceGeneration(current, installed));  // changed concurrently, include its changes
+                if (installed.size.get() > maximumCacheSize) {
+                    evict(installed, maximumCacheSize);
+                }
+                RuntimeException ex = failure.get();
+                if (ex != null) {
+                    throw ex;
+                }
+                return null;
+            }
+        });
+        List<Locale> localeList = new ArrayList<Locale>(locales);
+        if (localeList.isEmpty() || fieldIndexes.isEmpty()) {
+            install.run();
+            return install;
+        }
+        final AtomicInteger remaining = new AtomicInteger(localeList.size());
+        final ConcurrentMap<Locale, Boolean> claimed = new ConcurrentHashMap<Locale, Boolean>();
+        for (final Locale locale : localeList) {
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Locale resolved = localeResolver.resolve(locale);
+                        if (claimed.putIfAbsent(resolved, Boolean.TRUE) == null) {  // equivalent locales share stores
+                            prebuild(resolved, fieldIndexes, built);
+                        }
+                    } catch (RuntimeException ex) {
+                        failure.compareAndSet(null, ex);
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            install.run();  // the last task to finish installs the stores of all
+                        }
+                    }
+                }
+            };
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException ex) {
+                task.run();  // the executor is full or shut down, build here rather than never
+            }
+        }
+        return install;
+    }
 
-        //Show boxing explicitly.
-        //noinspection UnnecessaryBoxing
-        return Long.valueOf(calMonth + 1);
-    }
-
-    private Long calDayToThreeTenDay(int calDay) {
-        //Calendar days start from SUNDAY
-        //ThreeTen days start from MONDAY
-        //So 1 -> 7, 2 -> 1, ..., 7 -> 6
-
-        //Show boxing explicitly.
-        //noinspection UnnecessaryBoxing
-        return Long.valueOf(((calDay + 5) % 7) + 1);
-    }
-
-    private Map<Long, String> createMonthsMapFromSymbolsArray(String[] array) {
-        Map<Long, String> map = new HashMap<Long, String>();
-        for (int calMonth = Calendar.JANUARY; calMonth <= Calendar.DECEMBER; ++calMonth) {
-            Long threeTenMonth = calMonthToThreeTenMonth(calMonth);
-            map.put(threeTenMonth, array[calMonth]);
-        }
-        return map;
-    }
-
-    private Map<Long, String> createMonthsMapFromPattern(
-            SimpleDateFormat dateFormat, String pattern) {
-        dateFormat.applyPattern(pattern);
-
-        Map<Long, String> map = new HashMap<Long, String>();
-        for (int calMonth = Calendar.JANUARY; calMonth <= Calendar.DECEMBER; ++calMonth) {
-            Long threeTenMonth = calMonthToThreeTenMonth(calMonth);
-            dateFormat.getCalendar().set(Calendar.MONTH, calMonth);
-            String formattedMonth = dateFormat.format(dateFormat.getCalendar().getTime());
-            map.put(threeTenMonth, formattedMonth);
-        }
-        return map;
-    }
-
-    private Map<Long, String> createNarrowMonthsMapFromPattern(
-            SimpleDateFormat dateFormat, String pattern) {
-        dateFormat.applyPattern(pattern);
-
-        Map<Long, String> map = new HashMap<Long, String>();
-        for (int calMonth = Calendar.JANUARY; calMonth <= Calendar.DECEMBER; ++calMonth) {
-            Long threeTenMonth = calMonthToThreeTenMonth(calMonth);
-            dateFormat.getCalendar().set(Calendar.MONTH, calMonth);
-            String formattedMonth = dateFormat.format(dateFormat.getCalendar().getTime());
-            map.put(threeTenMonth, formattedMonth.substring(0, 1));
-        }
-        return map;
+    /**
+     * Builds the stores of the given fields of a locale, unless they are cached already.
+     *
+     * @param locale the resolved locale, not null
+     * @param fieldIndexes the indexes of the fields, not null
+     * @param built receives the entries of the built stores, not null
+     */
+    private void prebuild(Locale locale, List<Integer> fieldIndexes, Queue<CachedStore> built) {
+        FieldCache[] caches = generation.caches;
+        SharedExtractor extractor = new SharedExtractor(locale, tracer);
+        try {
+            for (int index : fieldIndexes) {
+                CachedStore cached = caches[index].stores.get(locale);
+                if (cached != null && cached.store != null) {
+                    continue;
+                }
+                long start = statistics != null ? System.nanoTime() : 0;
+                LocaleStore store = createStore(index, locale, extractor, true).materialize();
+                if (statistics != null) {
+                    statistics.recordCreation(index, locale, System.nanoTime() - start);
+                }
+                CachedStore entry = new CachedStore(index, locale);
+                entry.complete(store);
+                built.add(entry);
+            }
+        } finally {
+            extractor.release();
+        }
     }
 
-    private Map<Long, String> createDaysMapFromSymbolsArray(String[] array) {
-        Map<Long, String> map = new HashMap<Long, String>();
-        for (int calDay = Calendar.SUNDAY; calDay <= Calendar.SATURDAY; ++calDay) {
-            Long threeTenDay = calDayToThreeTenDay(calDay);
-            map.put(threeTenDay, array[calDay]);
+    /**
+     * Builds a new cache holding the stores of the current one and the given ones,
+     * unless the current one has a store of the same field and locale.
+     * Stores completed in the current one after they are copied are forwarded once it is replaced.
+     *
+     * @param current the current cache, not null
+     * @param built the entries of the built stores, not null
+     * @return the new cache, not null
+     */
+    private static Generation install(Generation current, Collection<CachedStore> built) {
+        Generation installed = new Generation();
+        List<CachedStore> entries = new ArrayList<CachedStore>(current.clock);
+        entries.addAll(built);
+        for (CachedStore cached : entries) {
+            LocaleStore store = cached.store;
+            if (store == null) {
+                continue;  // still being built, or failed
+            }
+            CachedStore entry = new CachedStore(cached.fieldIndex, cached.locale);
+            entry.complete(store);
+            entry.referenced = cached.referenced;
+            if (installed.caches[cached.fieldIndex].stores.putIfAbsent(cached.locale, entry) == null) {
+                installed.clock.add(entry);
+                installed.size.incrementAndGet();
+            }
         }
-        return map;
+        return installed;
     }
 
-    private Map<Long, String> createDaysMapFromPattern(
-            SimpleDateFormat dateFormat, String pattern) {
-        dateFormat.applyPattern(pattern);
+    /**
+     * Releases cached texts in response to memory pressure.
+     * <p>
+     * The level has the meaning of {@code ComponentCallbacks2.onTrimMemory(int)},
+     * so that method can simply delegate here.
+     * From {@code TRIM_MEMORY_MODERATE} the whole cache is released,
+     * and from {@code TRIM_MEMORY_RUNNING_LOW} the least recently used half of it.
+     *
+     * @param level the trim level
+     */
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_MODERATE) {
+            evictAll();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            Generation current = generation;
+            evict(current, current.size.get() / 2);
+            localeResolver.trim();
+        }
+    }
 
-        Map<Long, String> map = new HashMap<Long, String>();
-        for (int calDay = Calendar.SUNDAY; calDay <= Calendar.SATURDAY; ++calDay) {
-            Long threeTenDay = calDayToThreeTenDay(calDay);
-            dateFormat.getCalendar().set(Calendar.DAY_OF_WEEK, calDay);
-            String formattedMonth = dateFormat.format(dateFormat.getCalendar().getTime());
-            map.put(threeTenDay, formattedMonth);
+    private void evictAll() {
+        Generation current = generation;
+        for (CachedStore cached : current.clock) {
+            cached.referenced = false;
         }
-        return map;
+        evict(current, 0);
+        interner.clear();
+        localeResolver.trim();
     }
 
-    private Map<Long, String> createNarrowDaysMapFromPattern(
-            SimpleDateFormat dateFormat, String pattern) {
-        dateFormat.applyPattern(pattern);
+    /**
+     * Rebuilds all cached texts in the background, for example after the system locale or the platform data changed.
+     * <p>
+     * Lookups keep being served from the current stores while the new ones are built,
+     * and then switch to all the new stores at once, so rendering threads never wait.
+     * The texts are extracted again, ignoring snapshots, and all their styles are built.
+     * Texts not cached yet are built when first needed, as usual.
+     *
+     * @param executor the executor to rebuild on, not null
+     * @return a future completed when the new stores are in use, not null
+     */
+    public Future<Void> invalidate(Executor executor) {
+        return rebuildInBackground(null, executor);
+    }
 
-        Map<Long, String> map = new HashMap<Long, String>();
-        for (int calDay = Calendar.SUNDAY; calDay <= Calendar.SATURDAY; ++calDay) {
-            Long threeTenDay = calDayToThreeTenDay(calDay);
-            dateFormat.getCalendar().set(Calendar.DAY_OF_WEEK, calDay);
-            String formattedMonth = dateFormat.format(dateFormat.getCalendar().getTime());
-            map.put(threeTenDay, formattedMonth.substring(0, 1));
+    /**
+     * Rebuilds the cached texts of a locale in the background.
+     * <p>
+     * This is {@link #invalidate(Executor)} restricted to the stores of a locale,
+     * and to those of the equivalent locales sharing them.
+     *
+     * @param locale the locale to rebuild, not null
+     * @param executor the executor to rebuild on, not null
+     * @return a future completed when the new stores are in use, not null
+     */
+    public Future<Void> invalidate(Locale locale, Executor executor) {
+        if (locale == null) {
+            throw new NullPointerException("locale");
         }
-        return map;
+        return rebuildInBackground(localeResolver.resolve(locale), executor);
     }
 
-    //-----------------------------------------------------------------------
+    private Future<Void> rebuildInBackground(final Locale locale, Executor executor) {
+        FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+            @Override
+            public Void call() {
+                if (locale == null) {
+                    localeResolver.clear();  // the locales with data may have changed too
+                }
+                Generation current;
+                Generation rebuilt;
+                do {
+                    current = generation;
+                    rebuilt = rebuild(current, locale);
+                } while (!replaceGeneration(current, rebuilt));  // invalidated concurrently, include its changes
+                if (locale == null) {
+                    interner.clear();
+                }
+                return null;
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
 
     /**
-     * Helper method to create an immutable entry.
+     * Builds a new cache holding the stores of the current one,
+     * built again if their locale is invalidated.
+     * Stores completed in the current one after they are copied are forwarded once it is replaced.
      *
-     * @param text the text, not null
-     * @param field the field, not null
-     * @return the entry, not null
+     * @param current the current cache, not null
+     * @param locale the invalidated resolved locale, null for all
+     * @return the new cache, not null
      */
-    private static <A, B> Entry<A, B> createEntry(A text, B field) {
-        return new SimpleImmutableEntry<A, B>(text, field);
+    private Generation rebuild(Generation current, Locale locale) {
+        Generation rebuilt = new Generation(true, locale);
+        Map<Locale, SharedExtractor> extractors = new HashMap<Locale, SharedExtractor>();
+        try {
+            for (CachedStore cached : current.clock) {
+                LocaleStore store = cached.store;
+                if (store == null) {
+                    continue;  // still being built, or failed
+                }
+                if (locale == null || locale.equals(cached.locale)) {
+                    SharedExtractor extractor = extractors.get(cached.locale);
+                    if (extractor == null) {
+                        extractor = new SharedExtractor(cached.locale, tracer);
+                        extractors.put(cached.locale, extractor);
+                    }
+                    store = createStore(cached.fieldIndex, cached.locale, extractor, false).materialize();
+                }
+                CachedStore entry = new CachedStore(cached.fieldIndex, cached.locale);
+                entry.complete(store);
+                if (rebuilt.caches[cached.fieldIndex].stores.putIfAbsent(cached.locale, entry) == null) {
+                    rebuilt.clock.add(entry);
+                    rebuilt.size.incrementAndGet();
+                }
+            }
+        } finally {
+            for (SharedExtractor extractor : extractors.values()) {
+                extractor.release();
+            }
+        }
+        return rebuilt;
     }
 
-    //-----------------------------------------------------------------------
-    private static LocaleStore createLocaleStore(Map<TextStyle, Map<Long, String>> valueTextMap) {
-        if (!valueTextMap.containsKey(TextStyle.FULL_STANDALONE)) {
-            valueTextMap.put(TextStyle.FULL_STANDALONE, valueTextMap.get(TextStyle.FULL));
+    private synchronized boolean replaceGeneration(Generation expected, Generation replacement) {
+        if (generation != expected) {
+            return false;
+        }
+        generation = replacement;
+        expected.successor = replacement;  // stores completed in the old cache from now on are forwarded
+        return true;
+    }
+
+    /**
+     * Gets the number of stores currently cached.
+     * <p>
+     * There is one store per field and distinct locale used, equivalent locales such as
+     * {@code ca-ES} and {@code ca-ES-u-nu-latn} sharing a store.
+     *
+     * @return the number of cached stores
+     */
+    public int getCacheSize() {
+        return generation.size.get();
+    }
+
+    /**
+     * Gets the number of stores evicted from the cache, because the cache was full or memory was trimmed.
+     *
+     * @return the number of evictions since the provider was created
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Gets the resolver of the requested locales, for tests.
+     *
+     * @return the resolver, not null
+     */
+    LocaleResolver getLocaleResolver() {
+        return localeResolver;
+    }
+
+    /**
+     * Gets a snapshot of the statistics of the provider.
+     *
+     * @return the statistics, not null
+     * @throws IllegalStateException if the provider was not built with {@link Builder#recordStatistics()}
+     */
+    public ProviderStatistics getStatistics() {
+        if (statistics == null) {
+            throw new IllegalStateException("Statistics are not recorded, see Builder.recordStatistics()");
+        }
+        ProviderStatistics.Builder builder = new ProviderStatistics.Builder();
+        statistics.fill(builder);
+        builder.evictionCount(evictionCount.get());
+        for (CachedStore cached : generation.clock) {
+            LocaleStore store = cached.store;
+            if (store != null) {
+                builder.store(cached.locale, store.estimateRetainedBytes());
+            }
         }
+        return builder.build();
+    }
 
-        if (!valueTextMap.containsKey(TextStyle.SHORT_STANDALONE)) {
-            valueTextMap.put(TextStyle.SHORT_STANDALONE, valueTextMap.get(TextStyle.SHORT));
+    //-----------------------------------------------------------------------
+    private static int fieldIndex(TemporalField field) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (FIELDS[i] == field) {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        if (valueTextMap.containsKey(TextStyle.NARROW) && valueTextMap.containsKey(TextStyle.NARROW_STANDALONE) == false) {
-            valueTextMap.put(TextStyle.NARROW_STANDALONE, valueTextMap.get(TextStyle.NARROW));
+    private LocaleStore findStore(TemporalField field, Locale locale) {
+        int index = fieldIndex(field);
+        if (index < 0) {
+            if (statistics != null) {
+                statistics.recordUnsupported();
+            }
+            return null;  // no text for this field
+        }
+        Generation current = generation;
+        FieldCache cache = current.caches[index];
+        CachedStore cached;
+        if (readMostlyCache) {
+            cached = cache.table.get(locale);  // keyed by the requested locale, so hits need not resolve it
+        } else {
+            LastLookup last = cache.last;
+            cached = last != null && last.requested.equals(locale) ? last.cached : null;
+        }
+        if (cached != null) {
+            if (!cached.referenced) {
+                cached.referenced = true;
+            }
+            if (statistics != null) {
+                statistics.recordHit(index);
+            }
+            return cached.store;
+        }
+        Locale requested = locale;
+        locale = localeResolver.resolve(locale);  // stores are cached under the locale providing their texts
+        LocaleStore store;
+        boolean missed = false;
+        boolean retried = false;
+        do {
+            cached = cache.stores.get(locale);
+            boolean miss = cached == null || cached.store == null;
+            if (statistics != null && !retried) {  // once per lookup, even if a failed build is retried
+                if (miss) {
+                    statistics.recordMiss(index);  // built here or waiting for another thread
+                } else {
+                    statistics.recordHit(index);
+                }
+            }
+            if (miss && mainThreadPolicy != MainThreadPolicy.ALLOW && isMainThread()) {
+                LocaleStore fallback = onMainThreadMiss(current, index, locale, cached);
+                if (fallback != null) {
+                    return fallback;
+                }
+            }
+            if (miss) {
+                missed = true;
+                tracer.beginSection("findStore miss", field, locale);
+            }
+            try {
+                if (cached == null) {
+                    cached = buildStore(current, index, locale);
+                } else if (!cached.referenced) {
+                    cached.referenced = true;
+                }
+                store = cached.await();
+            } finally {
+                if (miss) {
+                    tracer.endSection();
+                }
+            }
+            retried = true;
+        } while (store == null);  // the build failed in another thread, try again
+        if (readMostlyCache) {
+            cache.publish(requested, cached);
+        } else if (missed || cache.last == null) {
+            // not on hits in the map, so threads using different locales write nothing shared
+            cache.last = new LastLookup(requested, cached);
         }
-        return new LocaleStore(valueTextMap);
+        return store;
     }
 
     /**
-     * Stores the text for a single locale.
+     * Builds the store of a field and locale, unless another thread is already doing so.
      * <p>
-     * Some fields have a textual representation, such as day-of-week or month-of-year.
-     * These textual representations can be captured in this class for printing
-     * and parsing.
+     * A pending entry is published before the build starts, so that concurrent misses
+     * of the same field and locale wait for it instead of building the store again.
+     * Misses of other fields and locales are not blocked.
      * <p>
-     * This class is immutable and thread-safe.
+     * When the texts have to be extracted from the platform, the stores of
+     * the other fields of the locale are built too, sharing the extracted platform data.
+     *
+     * @return the entry, pending if it is being built by another thread, not null
      */
-    static final class LocaleStore {
-        /**
-         * Map of value to text.
-         */
-        private final Map<TextStyle, Map<Long, String>> valueTextMap;
-        /**
-         * Parsable data.
-         */
-        private final Map<TextStyle, List<Entry<String, Long>>> parsable;
+    private CachedStore buildStore(Generation current, int index, Locale locale) {
+        CachedStore pending = new CachedStore(index, locale);
+        CachedStore existing = current.caches[index].stores.putIfAbsent(locale, pending);
+        if (existing != null) {
+            return existing;
+        }
+        completeStores(current, pending);
+        return pending;
+    }
 
-        //-----------------------------------------------------------------------
+    /**
+     * Builds the store of a field and locale on the background executor, unless another thread is already doing so.
+     *
+     * @return the entry, pending until the build finishes, not null
+     */
+    private CachedStore scheduleStore(final Generation current, int index, Locale locale) {
+        final CachedStore pending = new CachedStore(index, locale);
+        CachedStore existing = current.caches[index].stores.putIfAbsent(locale, pending);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            backgroundExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    completeStores(current, pending);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            completeStores(current, pending);  // the executor is shut down, build here rather than never
+        }
+        return pending;
+    }
 
-        /**
-         * Constructor.
-         *
-         * @param valueTextMap the map of values to text to store, assigned and not altered, not null
-         */
-        LocaleStore(Map<TextStyle, Map<Long, String>> valueTextMap) {
-            this.valueTextMap = valueTextMap;
-            Map<TextStyle, List<Entry<String, Long>>> map = new HashMap<TextStyle, List<Entry<String, Long>>>();
-            List<Entry<String, Long>> allList = new ArrayList<Entry<String, Long>>();
-            for (TextStyle style : valueTextMap.keySet()) {
-                Map<String, Entry<String, Long>> reverse = new HashMap<String, Entry<String, Long>>();
-                for (Entry<Long, String> entry : valueTextMap.get(style).entrySet()) {
-                    if (reverse.put(entry.getValue(), createEntry(entry.getValue(), entry.getKey())) != null) {
-                        continue;  // not parsable, try next style
+    /**
+     * Builds the store of a pending entry, and those of the other fields of the locale
+     * if the texts had to be extracted or are to be extracted lazily.
+     */
+    private void completeStores(Generation current, CachedStore pending) {
+        FieldCache[] caches = current.caches;
+        int index = pending.fieldIndex;
+        Locale locale = pending.locale;
+        SharedExtractor extractor = new SharedExtractor(locale, tracer);
+        try {
+            LocaleStore store = completeStore(current, pending, extractor);
+            if (!extractor.isStarted() && (store == null || !store.isLazy())) {
+                return;
+            }
+            // formatting a date usually needs several fields, build them while the platform data is at hand,
+            // or as lazy stores sharing the extractor, and so the platform data, while it is still loaded
+            for (int i = 0; i < caches.length; i++) {
+                if (i != index && !caches[i].stores.containsKey(locale)) {
+                    CachedStore sibling = new CachedStore(i, locale);
+                    if (caches[i].stores.putIfAbsent(locale, sibling) == null) {
+                        try {
+                            completeStore(current, sibling, extractor);
+                        } catch (RuntimeException ex) {
+                            // not requested, it is built again when first needed
+                        }
                     }
                 }
-                List<Entry<String, Long>> list = new ArrayList<Entry<String, Long>>(reverse.values());
-                Collections.sort(list, COMPARATOR);
-                map.put(style, list);
-                allList.addAll(list);
-                map.put(null, allList);
             }
-            Collections.sort(allList, COMPARATOR);
-            this.parsable = map;
+        } finally {
+            extractor.release();  // the cached stores must not keep the platform data alive
         }
+    }
 
-        //-----------------------------------------------------------------------
+    /**
+     * Applies the main thread policy to a lookup missing the cache on the main thread.
+     *
+     * @param cached the entry being built by another thread, null if none
+     * @return the store to serve, null to build or wait for it as on other threads
+     */
+    private LocaleStore onMainThreadMiss(Generation current, int index, Locale locale, CachedStore cached) {
+        if (mainThreadPolicy != MainThreadPolicy.FALLBACK) {
+            reportMainThreadMiss(FIELDS[index], locale);
+            return null;
+        }
+        if (cached == null) {
+            cached = scheduleStore(current, index, locale);
+        }
+        LocaleStore fallback = cached.fallback;
+        if (fallback == null) {
+            LocaleTextExtractor extractor = new LocaleTextExtractor(locale, tracer);
+            fallback = createLocaleStore(extractor.extractFromSymbols(FIELDS[index]), MIN_VALUES[index]);
+            cached.fallback = fallback;  // shared by the next misses, racing threads build equal stores
+        }
+        LocaleStore store = cached.store;
+        return store != null ? store : fallback;
+    }
 
-        /**
-         * Gets the text for the specified field value, locale and style
-         * for the purpose of printing.
-         *
-         * @param value the value to get text for, not null
-         * @param style the style to get text for, not null
-         * @return the text for the field value, null if no text found
-         */
-        String getText(long value, TextStyle style) {
-            Map<Long, String> map = valueTextMap.get(style);
-            return map != null ? map.get(value) : null;
+    /**
+     * Logs or throws, as the main thread policy says, about texts built on the main thread.
+     */
+    private void reportMainThreadMiss(TemporalField field, Locale locale) {
+        String message = "Texts of " + field + " in " + locale + " built on the main thread";
+        if (mainThreadPolicy == MainThreadPolicy.THROW) {
+            throw new IllegalStateException(message + ", see Builder.mainThreadPolicy()");
         }
+        Log.w(TAG, message, new Throwable(message));  // for the stack trace of the lookup
+    }
 
-        /**
-         * Gets an iterator of text to field for the specified style for the purpose of parsing.
-         * <p>
-         * The iterator must be returned in order from the longest text to the shortest.
-         *
-         * @param style the style to get text for, null for all parsable text
-         * @return the iterator of text to field pairs, in order from longest text to shortest text,
-         * null if the style is not parsable
-         */
-        Iterator<Entry<String, Long>> getTextIterator(TextStyle style) {
-            List<Entry<String, Long>> list = parsable.get(style);
-            return list != null ? list.iterator() : null;
+    private static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    /**
+     * Builds the store of a pending entry and installs it in the cache,
+     * or removes the entry from the cache if the build fails.
+     *
+     * @return the store built, not null
+     */
+    private LocaleStore completeStore(Generation current, CachedStore pending, SharedExtractor extractor) {
+        LocaleStore store = null;
+        long start = statistics != null ? System.nanoTime() : 0;
+        try {
+            store = createStore(pending.fieldIndex, pending.locale, extractor, true);
+            if (statistics != null) {
+                statistics.recordCreation(pending.fieldIndex, pending.locale, System.nanoTime() - start);
+            }
+        } finally {
+            if (store == null) {
+                current.caches[pending.fieldIndex].stores.remove(pending.locale, pending);
+            }
+            pending.complete(store);
+        }
+        current.clock.add(pending);
+        if (current.size.incrementAndGet() > maximumCacheSize) {
+            evict(current, maximumCacheSize);
+        }
+        forward(current, pending);
+        return store;
+    }
+
+    /**
+     * Installs a store completed in a replaced cache in the caches replacing it,
+     * as they were copied before it was added to its clock, or while it was still being built.
+     * <p>
+     * Nothing is installed in a cache having the store of the same field and locale,
+     * nor in and after a cache that built the stores of the locale again.
+     */
+    private void forward(Generation replaced, CachedStore cached) {
+        for (Generation next = replaced.successor; next != null; next = next.successor) {
+            if (next.rebuilds(cached.locale)) {
+                return;  // may have been built from the texts invalidated
+            }
+            CachedStore entry = new CachedStore(cached.fieldIndex, cached.locale);
+            entry.complete(cached.store);
+            if (next.caches[cached.fieldIndex].stores.putIfAbsent(cached.locale, entry) == null) {
+                next.clock.add(entry);
+                if (next.size.incrementAndGet() > maximumCacheSize) {
+                    evict(next, maximumCacheSize);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts entries until at most the given number remain.
+     * <p>
+     * This is the CLOCK approximation of least-recently-used eviction:
+     * entries used since the last sweep get a second chance and are moved to the back.
+     *
+     * @param current the cache to evict from, not null
+     * @param targetSize the number of entries to keep
+     */
+    private void evict(Generation current, int targetSize) {
+        boolean evicted = false;
+        while (current.size.get() > targetSize) {
+            CachedStore cached = current.clock.poll();
+            if (cached == null) {
+                break;
+            }
+            if (cached.referenced) {
+                cached.referenced = false;
+                current.clock.add(cached);
+                continue;
+            }
+            FieldCache cache = current.caches[cached.fieldIndex];
+            if (cache.stores.remove(cached.locale, cached)) {
+                current.size.decrementAndGet();
+                evictionCount.incrementAndGet();
+                if (statistics != null) {
+                    statistics.recordEviction(cached.fieldIndex, cached.locale);
+                }
+                evicted = true;
+            }
+            LastLookup last = cache.last;
+            if (last != null && last.cached == cached) {
+                cache.last = null;
+            }
+        }
+        if (evicted && readMostlyCache) {
+            for (FieldCache cache : current.caches) {
+                cache.publish();
+            }
+        }
+    }
+
+    /**
+     * Creates the store of a field and locale.
+     *
+     * @param useSnapshot whether a snapshot may be loaded, rather than extracting the texts again
+     */
+    private LocaleStore createStore(int index, Locale locale, SharedExtractor extractor, boolean useSnapshot) {
+        tracer.beginSection("createStore", FIELDS[index], locale);
+        try {
+            return createTracedStore(index, locale, extractor, useSnapshot);
+        } finally {
+            tracer.endSection();
+        }
+    }
+
+    private LocaleStore createTracedStore(int index, Locale locale, SharedExtractor extractor,
+            boolean useSnapshot) {
+        final TemporalField field = FIELDS[index];
+        String[][] styleTexts = null;
+        for (int i = 0; i < sources.length && styleTexts == null; i++) {
+            styleTexts = sources[i].getTexts(field, locale);
+        }
+        if (styleTexts == null && snapshots != null && useSnapshot) {
+            styleTexts = snapshots.load(field, locale);
+        }
+        if (styleTexts == null && !eagerStores && !compactStores && snapshots == null
+                && mainThreadPolicy != MainThreadPolicy.FALLBACK) {  // fallbacks need all texts built at once
+            return createLazyStore(index, locale, extractor);
+        }
+        if (styleTexts == null) {
+            styleTexts = extractor.extract(field);
+            if (snapshots != null) {
+                snapshots.save(field, locale, styleTexts);
+            }
+        }
+        LocaleStore store = createLocaleStore(styleTexts, MIN_VALUES[index]);
+        return eagerStores ? store.materialize() : store;
+    }
+
+    /**
+     * Creates a store extracting the texts of each style when first used,
+     * as most apps only print one or two styles of a field.
+     * <p>
+     * The extractor is shared by the stores of the other fields of the locale, so the platform data
+     * is only loaded once while it is in use. It is released when the miss finishes,
+     * so the platform data is not kept alive until all styles are loaded.
+     */
+    private LocaleStore createLazyStore(final int index, final Locale locale, final SharedExtractor extractor) {
+        return new LocaleStore(new StyleLoader() {
+            @Override
+            public String[] load(TextStyle style) {
+                TemporalField field = FIELDS[index];
+                if (mainThreadPolicy != MainThreadPolicy.ALLOW && isMainThread()) {
+                    reportMainThreadMiss(field, locale);
+                }
+                long start = statistics != null ? System.nanoTime() : 0;
+                String[] texts = extractor.extract(field, style);
+                if (statistics != null) {
+                    statistics.recordLoad(index, System.nanoTime() - start);
+                }
+                return texts != null ? interner.internTable(texts) : null;
+            }
+        }, MIN_VALUES[index]);
+    }
+
+    //-----------------------------------------------------------------------
+
+    /**
+     * Helper method to create an immutable entry.
+     *
+     * @param text the text, not null
+     * @param field the field, not null
+     * @return the entry, not null
+     */
+    private static <A, B> Entry<A, B> createEntry(A text, B field) {
+        return new SimpleImmutableEntry<A, B>(text, field);
+    }
+
+    //-----------------------------------------------------------------------
+    private LocaleStore createLocaleStore(String[][] styleTexts, int minValue) {
+        if (styleTexts[TextStyle.FULL_STANDALONE.ordinal()] == null) {
+            styleTexts[TextStyle.FULL_STANDALONE.ordinal()] = styleTexts[TextStyle.FULL.ordinal()];
+        }
+
+        if (styleTexts[TextStyle.SHORT_STANDALONE.ordinal()] == null) {
+            styleTexts[TextStyle.SHORT_STANDALONE.ordinal()] = styleTexts[TextStyle.SHORT.ordinal()];
+        }
+
+        if (styleTexts[TextStyle.NARROW.ordinal()] != null && styleTexts[TextStyle.NARROW_STANDALONE.ordinal()] == null) {
+            styleTexts[TextStyle.NARROW_STANDALONE.ordinal()] = styleTexts[TextStyle.NARROW.ordinal()];
+        }
+        if (compactStores) {
+            return new LocaleStore(interner.intern(PackedTexts.pack(styleTexts)), minValue);
+        }
+        return interner.intern(styleTexts, minValue);
+    }
+
+    /**
+     * Builder of a provider with non-default settings.
+     * <p>
+     * This class is mutable and not thread-safe.
+     */
+    public static final class Builder {
+        private File snapshotDirectory;
+        private int maximumCacheSize = Integer.MAX_VALUE;
+        private boolean recordStatistics;
+        private boolean eagerStores;
+        private boolean compactStores;
+        private boolean readMostlyCache;
+        private Tracer tracer = Tracer.NONE;
+        private MainThreadPolicy mainThreadPolicy = MainThreadPolicy.ALLOW;
+        private Executor backgroundExecutor;
+        private StatisticsListener statisticsListener;
+        private final List<TextSource> textSources = new ArrayList<TextSource>();
+
+        /**
+         * Creates a builder with the default settings.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Persists extracted texts as snapshots in a directory, such as a subdirectory of
+         * {@code Context.getNoBackupFilesDir()}.
+         * <p>
+         * Texts found in a snapshot are loaded without touching {@link SimpleDateFormat},
+         * which saves the extraction cost on every process start after the first one.
+         * Snapshots are tied to {@code Build.FINGERPRINT}, so they are extracted again
+         * after a system update. They are written on the {@link #backgroundExecutor(Executor)} if set,
+         * or else on a thread of their own.
+         *
+         * @param directory the directory to keep the snapshots in, created if needed, not null
+         * @return this, for chaining, not null
+         */
+        public Builder snapshotDirectory(File directory) {
+            if (directory == null) {
+                throw new NullPointerException("directory");
+            }
+            this.snapshotDirectory = directory;
+            return this;
+        }
+
+        /**
+         * Adds a source of texts, consulted before the built-in ones.
+         * <p>
+         * Sources are consulted in the order they were added, then the tables generated at build time,
+         * then ICU on Android 7.0 and later, then snapshots, and finally the texts are extracted
+         * from {@link SimpleDateFormat}.
+         *
+         * @param source the source, not null
+         * @return this, for chaining, not null
+         */
+        public Builder textSource(TextSource source) {
+            if (source == null) {
+                throw new NullPointerException("source");
+            }
+            textSources.add(source);
+            return this;
+        }
+
+        /**
+         * Limits the number of stores kept in the cache.
+         * <p>
+         * There is one store per field and locale used. When the cache is full,
+         * the stores not used for the longest time are evicted and extracted again if needed.
+         * By default the cache is unbounded.
+         *
+         * @param maximumSize the maximum number of stores, at least one
+         * @return this, for chaining, not null
+         */
+        public Builder maximumCacheSize(int maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("Maximum cache size must be at least one: " + maximumSize);
+            }
+            this.maximumCacheSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Loads all texts of a field and builds its parse data as soon as its store is created.
+         * <p>
+         * By default the texts of each style are only extracted when the style is first used,
+         * and parse data only built when first parsing, which lowers the latency of first use
+         * and the memory held for styles that are never used.
+         * Eager stores move all of that work to the first use of the field,
+         * and extract the texts of the other fields of the locale at the same time.
+         * When snapshots are enabled, the texts of all styles are always loaded together,
+         * as snapshots hold all styles.
+         *
+         * @return this, for chaining, not null
+         */
+        public Builder eagerStores() {
+            this.eagerStores = true;
+            return this;
+        }
+
+        /**
+         * Packs the texts of each store into a single char array, for apps keeping many locales in memory.
+         * <p>
+         * Compact stores take a fraction of the memory of strings, as most texts are only a few chars long.
+         * The append methods read the packed chars directly and parse data is built from them,
+         * while {@link #getText} unpacks and keeps the strings of a style when it is first used through it,
+         * so compact stores save the most when formatting with the append methods.
+         * All styles of a field are extracted together, to be packed.
+         *
+         * @return this, for chaining, not null
+         */
+        public Builder compactStores() {
+            this.compactStores = true;
+            return this;
+        }
+
+        /**
+         * Optimizes the cache for lookups from many threads once the used locales are cached.
+         * <p>
+         * Lookups read an immutable table of the cached stores, so threads on different cores
+         * never write to the same memory and do not slow each other down.
+         * The table is copied whenever a store is added or evicted, with concurrent changes
+         * batched into a single copy, which makes misses more expensive than with the default cache.
+         *
+         * @return this, for chaining, not null
+         */
+        public Builder readMostlyCache() {
+            this.readMostlyCache = true;
+            return this;
+        }
+
+        /**
+         * Writes the slow work of the provider as sections of the system trace, from Android 4.3 (API 18).
+         * <p>
+         * Cache misses, store creation, the extraction of each style and the building of parse data
+         * show up in Perfetto and systrace, named after the field and locale, to see how much
+         * of start-up and of janky frames is spent on texts. Hits are never traced.
+         * Tracing does nothing on older versions and on the JVM.
+         * From Android 10 (API 29), section names are only built while the app is being traced.
+         *
+         * @return this, for chaining, not null
+         */
+        public Builder traceSections() {
+            return traceSections(Tracer.create());
+        }
+
+        /**
+         * Writes the slow work of the provider as sections of the given tracer, for tests.
+         *
+         * @param tracer the tracer, not null
+         * @return this, for chaining, not null
+         */
+        Builder traceSections(Tracer tracer) {
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * Sets what to do when texts missing from the cache are needed on the main thread.
+         * <p>
+         * This covers the first use of each field and locale, and with the default lazy stores
+         * the first use of each style too. Texts served from the cache are never affected.
+         *
+         * @param policy the policy, not null
+         * @return this, for chaining, not null
+         * @see #backgroundExecutor(Executor)
+         */
+        public Builder mainThreadPolicy(MainThreadPolicy policy) {
+            if (policy == null) {
+                throw new NullPointerException("policy");
+            }
+            this.mainThreadPolicy = policy;
+            return this;
+        }
+
+        /**
+         * Sets the executor building the texts served by a fallback meanwhile,
+         * required by {@link MainThreadPolicy#FALLBACK}, and writing snapshots.
+         *
+         * @param executor the executor, not null
+         * @return this, for chaining, not null
+         */
+        public Builder backgroundExecutor(Executor executor) {
+            if (executor == null) {
+                throw new NullPointerException("executor");
+            }
+            this.backgroundExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Records statistics of cache use and store creation, available from {@link #getStatistics()}.
+         * <p>
+         * By default no statistics are recorded and the provider pays nothing for them.
+         *
+         * @return this, for chaining, not null
+         */
+        public Builder recordStatistics() {
+            this.recordStatistics = true;
+            return this;
+        }
+
+        /**
+         * Records statistics and notifies a listener of every store created and evicted.
+         *
+         * @param listener the listener, not null
+         * @return this, for chaining, not null
+         * @see #recordStatistics()
+         */
+        public Builder statisticsListener(StatisticsListener listener) {
+            if (listener == null) {
+                throw new NullPointerException("listener");
+            }
+            this.recordStatistics = true;
+            this.statisticsListener = listener;
+            return this;
+        }
+
+        /**
+         * Builds the provider.
+         *
+         * @return the provider, not null
+         */
+        public AndroidDateTimeTextProvider build() {
+            if (mainThreadPolicy == MainThreadPolicy.FALLBACK && backgroundExecutor == null) {
+                throw new IllegalStateException("The fallback main thread policy needs a background executor");
+            }
+            return new AndroidDateTimeTextProvider(this);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+
+    /**
+     * A generation of the cache, replaced as a whole when invalidated.
+     */
+    private static final class Generation {
+        /**
+         * Cache, one table per supported field.
+         */
+        final FieldCache[] caches = new FieldCache[FIELDS.length];
+        /**
+         * All cache entries in insertion order, swept by the eviction clock.
+         */
+        final Queue<CachedStore> clock = new ConcurrentLinkedQueue<CachedStore>();
+        /**
+         * Number of cache entries.
+         */
+        final AtomicInteger size = new AtomicInteger();
+        /**
+         * The generation replacing this one, null while it is in use.
+         */
+        volatile Generation successor;
+        /**
+         * Whether the stores of {@link #rebuiltLocale} were built again rather than copied.
+         */
+        private final boolean rebuilt;
+        /**
+         * The resolved locale whose stores were built again, null for all.
+         */
+        private final Locale rebuiltLocale;
+
+        Generation() {
+            this(false, null);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param rebuilt whether the stores of a locale are built again rather than copied
+         * @param rebuiltLocale the resolved locale whose stores are built again, null for all
+         */
+        Generation(boolean rebuilt, Locale rebuiltLocale) {
+            this.rebuilt = rebuilt;
+            this.rebuiltLocale = rebuiltLocale;
+            for (int i = 0; i < caches.length; i++) {
+                caches[i] = new FieldCache();
+            }
+        }
+
+        /**
+         * Checks whether the stores of a locale were built again, so those of previous generations are stale.
+         *
+         * @param locale the resolved locale, not null
+         * @return true if the stores of the locale were built again
+         */
+        boolean rebuilds(Locale locale) {
+            return rebuilt && (rebuiltLocale == null || rebuiltLocale.equals(locale));
+        }
+    }
+
+    /**
+     * The cached stores of a single field.
+     */
+    private static final class FieldCache {
+        /**
+         * The maximum number of requested locales in the table other than the resolved locales.
+         */
+        static final int MAX_ALIASES = 64;
+        /**
+         * Stores by resolved locale.
+         */
+        final ConcurrentMap<Locale, CachedStore> stores =
+                new ConcurrentHashMap<Locale, CachedStore>(16, 0.75f, 2);
+        /**
+         * The entry most recently built or waited for, with the locale it was requested with,
+         * checked before the map so that repeated lookups of a locale need not resolve it.
+         * Hits in the map only set it when it is empty, so that they never write to it
+         * while threads look up different locales.
+         */
+        volatile LastLookup last;
+        /**
+         * Built entries by requested locale, checked instead of {@link #last} by a read-mostly cache,
+         * so that hits read neither the map nor the locale resolver.
+         * It is only replaced by {@link #publish()}, so lookups hitting it write nothing shared.
+         * It holds the entries of {@link #stores} under their resolved locale,
+         * and under at most {@link #MAX_ALIASES} other requested locales resolving to them,
+         * so it is copied a bounded number of times per store.
+         */
+        volatile LocaleTable<CachedStore> table = LocaleTable.empty();
+        /**
+         * The number of keys of the table other than the resolved locale of their entry.
+         */
+        private volatile int aliasCount;
+        /**
+         * Entries to add to the table on the next publication, by requested locale.
+         */
+        private final Queue<Entry<Locale, CachedStore>> additions =
+                new ConcurrentLinkedQueue<Entry<Locale, CachedStore>>();
+
+        /**
+         * Adds a built entry to the table under a requested locale, unless it is there already.
+         * <p>
+         * Requested locales other than the resolved one, such as variants, are only added
+         * while the table has fewer than {@link #MAX_ALIASES} of them. Lookups of the others
+         * resolve the locale and find the entry in the map, as with the default cache.
+         * Threads adding entries at the same time publish a single copy of the table holding all of them.
+         *
+         * @param locale the requested locale, not null
+         * @param cached the built entry, not null
+         */
+        void publish(Locale locale, CachedStore cached) {
+            if (table.get(locale) != cached && (locale.equals(cached.locale) || aliasCount < MAX_ALIASES)) {
+                additions.add(new SimpleImmutableEntry<Locale, CachedStore>(locale, cached));
+                publish();
+            }
+        }
+
+        /**
+         * Publishes a copy of the table with the pending additions and without the evicted entries,
+         * unless nothing changed.
+         */
+        synchronized void publish() {
+            LocaleTable<CachedStore> current = table;
+            int capacity = current.size() + additions.size();
+            Locale[] keys = new Locale[capacity];
+            Object[] values = new Object[capacity];
+            int count = 0;
+            int aliases = 0;
+            for (int i = 0; i < current.capacity(); i++) {
+                CachedStore cached = current.valueAt(i);
+                if (cached != null && stores.get(cached.locale) == cached) {
+                    keys[count] = current.keyAt(i);
+                    values[count++] = cached;
+                    if (!cached.locale.equals(current.keyAt(i))) {
+                        aliases++;
+                    }
+                }
+            }
+            boolean changed = count < current.size();
+            Entry<Locale, CachedStore> addition;
+            while (count < capacity && (addition = additions.poll()) != null) {
+                Locale locale = addition.getKey();
+                CachedStore cached = addition.getValue();
+                boolean alias = !cached.locale.equals(locale);
+                // not evicted since it was found, nor published by another thread, nor an alias too many
+                if (stores.get(cached.locale) == cached && current.get(locale) != cached
+                        && (!alias || aliases < MAX_ALIASES)) {
+                    keys[count] = locale;
+                    values[count++] = cached;
+                    changed = true;
+                    if (alias) {
+                        aliases++;
+                    }
+                }
+            }
+            if (changed) {
+                table = LocaleTable.of(keys, values, count);
+                aliasCount = aliases;
+            }
+        }
+    }
+
+    /**
+     * The last entry looked up in a field cache, with the locale it was requested with,
+     * which differs from the resolved locale of the entry for variants and extensions.
+     * <p>
+     * This class is immutable and thread-safe.
+     */
+    private static final class LastLookup {
+        final Locale requested;
+        final CachedStore cached;
+
+        LastLookup(Locale requested, CachedStore cached) {
+            this.requested = requested;
+            this.cached = cached;
+        }
+    }
+
+    /**
+     * A cache entry, pairing a locale with its store so that hits allocate nothing.
+     * <p>
+     * The entry is cached while its store is still being built,
+     * and threads needing the store wait for it.
+     */
+    private static final class CachedStore {
+        final int fieldIndex;
+        final Locale locale;
+        /**
+         * The store, null while it is being built.
+         */
+        volatile LocaleStore store;
+        /**
+         * The store served on the main thread while this one is built, null if none.
+         */
+        volatile LocaleStore fallback;
+        /**
+         * Whether the build has finished, successfully or not.
+         */
+        private boolean done;
+        /**
+         * Whether the entry was used since the eviction clock last passed it.
+         * Races are harmless, as eviction order is only approximate.
+         */
+        boolean referenced;
+
+        CachedStore(int fieldIndex, Locale locale) {
+            this.fieldIndex = fieldIndex;
+            this.locale = locale;
+        }
+
+        /**
+         * Completes the build, waking up the waiting threads.
+         *
+         * @param store the store, null if the build failed
+         */
+        synchronized void complete(LocaleStore store) {
+            this.store = store;
+            this.fallback = null;
+            this.done = true;
+            notifyAll();
+        }
+
+        /**
+         * Waits until the store is built.
+         *
+         * @return the store, null if the build failed
+         */
+        LocaleStore await() {
+            LocaleStore result = store;
+            if (result != null) {
+                return result;
+            }
+            boolean interrupted = false;
+            synchronized (this) {
+                while (!done) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ex) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return store;
+        }
+    }
+
+    /**
+     * Loads the texts of a single style of a store on first use.
+     */
+    interface StyleLoader {
+        /**
+         * Loads the texts of a style.
+         *
+         * @param style the style, not null
+         * @return the texts indexed by value offset, null if the style has no texts of its own
+         */
+        String[] load(TextStyle style);
+    }
+
+    /**
+     * Stores the text for a single locale.
+     * <p>
+     * Some fields have a textual representation, such as day-of-week or month-of-year.
+     * These textual representations can be captured in this class for printing
+     * and parsing.
+     * <p>
+     * Texts are held in arrays indexed by {@link TextStyle#ordinal()} and then by
+     * the field value minus the minimum value of the field,
+     * so printing requires neither boxing nor hashing.
+     * <p>
+     * The texts of a style may be loaded when first used, and the parse lists and indexes
+     * of a style are built when first used, so that styles which are only printed,
+     * or not used at all, cost nothing more.
+     * <p>
+     * This class is thread-safe.
+     */
+    static final class LocaleStore {
+        /**
+         * Marker of the texts of a style not loaded yet.
+         */
+        private static final String[] UNLOADED = new String[0];
+        /**
+         * The index of the parse data for all styles, after the style ordinals.
+         */
+        private static final int ALL_STYLES = STYLES.length;
+        /**
+         * Marker of a style without parse list, as it has no texts.
+         */
+        private static final List<Entry<String, Long>> EMPTY_PARSE_LIST =
+                Collections.unmodifiableList(new ArrayList<Entry<String, Long>>(0));
+        /**
+         * Marker of a style without parse index, as it has no texts.
+         */
+        private static final TextTrie EMPTY_TRIE = new TextTrie.Builder().build();
+        /**
+         * Marker of a style without lookup index, as it has no texts.
+         */
+        private static final TextIndex EMPTY_INDEX = new TextIndex.Builder().build();
+
+        /**
+         * Texts by style ordinal, then by value offset, null for styles without text.
+         * Replaced by a copy whenever a style is loaded.
+         */
+        private volatile String[][] styleTexts;
+        /**
+         * Loads the styles still {@link #UNLOADED}, null once all are loaded.
+         */
+        private StyleLoader loader;
+        /**
+         * All texts packed into a single array, null unless the store is compact.
+         * Styles are only unpacked into kept tables of strings when printed by {@link #getText(long, TextStyle)}.
+         */
+        private final PackedTexts packed;
+        /**
+         * The field value stored at index zero of each style array.
+         */
+        private final int minValue;
+        /**
+         * Parse lists by style ordinal, with the list for all styles last, null until first used.
+         */
+        private final AtomicReferenceArray<List<Entry<String, Long>>> parsable =
+                new AtomicReferenceArray<List<Entry<String, Long>>>(ALL_STYLES + 1);
+        /**
+         * Parse indexes by matching ordinal, then by style ordinal with the index for all styles last,
+         * null until first used.
+         */
+        private final AtomicReferenceArray<TextTrie> tries =
+                new AtomicReferenceArray<TextTrie>(TextMatching.values().length * (ALL_STYLES + 1));
+        /**
+         * Exact lookup indexes by style ordinal, with the index for all styles last, null until first used.
+         */
+        private final AtomicReferenceArray<TextIndex> indexes = new AtomicReferenceArray<TextIndex>(ALL_STYLES + 1);
+
+        //-----------------------------------------------------------------------
+
+        /**
+         * Constructor.
+         *
+         * @param styleTexts the texts indexed by style ordinal and value offset, assigned and not altered, not null
+         * @param minValue the field value of the first text of each style
+         */
+        LocaleStore(String[][] styleTexts, int minValue) {
+            this.styleTexts = styleTexts;
+            this.packed = null;
+            this.minValue = minValue;
+        }
+
+        /**
+         * Constructor of a compact store.
+         * <p>
+         * Texts are appended from the packed chars, and parse data is built from them.
+         * Styles are only unpacked into tables of strings kept by the store when used by
+         * {@link #getText(long, TextStyle)}, which has to return strings.
+         *
+         * @param packed the texts, with the standalone fallbacks already applied, not null
+         * @param minValue the field value of the first text of each style
+         */
+        LocaleStore(final PackedTexts packed, int minValue) {
+            String[][] styleTexts = new String[ALL_STYLES][];
+            Arrays.fill(styleTexts, UNLOADED);
+            this.styleTexts = styleTexts;
+            this.packed = packed;
+            this.loader = new StyleLoader() {
+                @Override
+                public String[] load(TextStyle style) {
+                    return packed.unpack(style.ordinal());
+                }
+            };
+            this.minValue = minValue;
+        }
+
+        /**
+         * Constructor of a store whose texts are loaded when first used.
+         * <p>
+         * Standalone styles without texts of their own fall back to the format style.
+         *
+         * @param loader the loader of the texts, not null
+         * @param minValue the field value of the first text of each style
+         */
+        LocaleStore(StyleLoader loader, int minValue) {
+            String[][] styleTexts = new String[ALL_STYLES][];
+            Arrays.fill(styleTexts, UNLOADED);
+            this.styleTexts = styleTexts;
+            this.packed = null;
+            this.loader = loader;
+            this.minValue = minValue;
+        }
+
+        /**
+         * Loads all texts and builds all exact parse data, as stores did before loading lazily.
+         * <p>
+         * The texts of a compact store stay packed, the parse data is built from the packed texts.
+         *
+         * @return this, for chaining, not null
+         */
+        LocaleStore materialize() {
+            for (int i = 0; i <= ALL_STYLES; i++) {
+                getParseList(i);
+                getTrie(TextMatching.EXACT, i);
+            }
+            return this;
+        }
+
+        //-----------------------------------------------------------------------
+
+        /**
+         * Gets the text for the specified field value, locale and style
+         * for the purpose of printing.
+         *
+         * @param value the value to get text for, not null
+         * @param style the style to get text for, not null
+         * @return the text for the field value, null if no text found
+         */
+        String getText(long value, TextStyle style) {
+            String[] texts = styleTexts[style.ordinal()];
+            if (texts == UNLOADED) {
+                texts = load(style.ordinal());
+            }
+            if (texts == null) {
+                return null;
+            }
+            long index = value - minValue;
+            return index >= 0 && index < texts.length ? texts[(int) index] : null;
+        }
+
+        /**
+         * Appends the texts for many values, as numbers for values without text.
+         *
+         * @param values the values to get text for, not null
+         * @param style the style to get text for, not null
+         * @param separator the text appended between values, not null
+         * @param buf the builder to append to, not null
+         * @return the number of values appended as text
+         */
+        int appendTexts(long[] values, TextStyle style, CharSequence separator, StringBuilder buf) {
+            int ordinal = style.ordinal();
+            String[] texts = isPacked(ordinal) ? null : getTexts(ordinal);
+            int length = texts != null ? texts.length : packed != null ? packed.count(ordinal) : -1;
+            int count = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buf.append(separator);
+                }
+                long index = values[i] - minValue;
+                if (index >= 0 && index < length) {
+                    if (texts != null) {
+                        buf.append(texts[(int) index]);
+                    } else {
+                        packed.append(ordinal, (int) index, buf);
+                    }
+                    count++;
+                } else {
+                    buf.append(values[i]);
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Appends the text for the specified field value and style to a builder.
+         *
+         * @param value the value to get text for
+         * @param style the style to get text for, not null
+         * @param buf the builder to append to, not null
+         * @return true if the text was appended
+         */
+        boolean appendText(long value, TextStyle style, StringBuilder buf) {
+            int ordinal = style.ordinal();
+            if (isPacked(ordinal)) {
+                int index = packedIndex(value, ordinal);
+                if (index >= 0) {
+                    packed.append(ordinal, index, buf);
+                }
+                return index >= 0;
+            }
+            String text = getText(value, style);
+            if (text != null) {
+                buf.append(text);
+            }
+            return text != null;
+        }
+
+        /**
+         * Appends the text for the specified field value and style to an appendable.
+         *
+         * @param value the value to get text for
+         * @param style the style to get text for, not null
+         * @param appendable the appendable to append to, not null
+         * @return true if the text was appended
+         * @throws IOException if the appendable fails
+         */
+        boolean appendText(long value, TextStyle style, Appendable appendable) throws IOException {
+            int ordinal = style.ordinal();
+            if (isPacked(ordinal)) {
+                int index = packedIndex(value, ordinal);
+                if (index >= 0) {
+                    packed.append(ordinal, index, appendable);
+                }
+                return index >= 0;
+            }
+            String text = getText(value, style);
+            if (text != null) {
+                appendable.append(text);
+            }
+            return text != null;
+        }
+
+        /**
+         * Copies the text for the specified field value and style into a char array.
+         *
+         * @param value the value to get text for
+         * @param style the style to get text for, not null
+         * @param destination the array to copy to, not null
+         * @param offset the index to copy the first char to
+         * @return the number of chars copied, negative if there is no text
+         */
+        int getChars(long value, TextStyle style, char[] destination, int offset) {
+            int ordinal = style.ordinal();
+            if (isPacked(ordinal)) {
+                int index = packedIndex(value, ordinal);
+                return index >= 0 ? packed.getChars(ordinal, index, destination, offset) : -1;
+            }
+            String text = getText(value, style);
+            if (text == null) {
+                return -1;
+            }
+            text.getChars(0, text.length(), destination, offset);
+            return text.length();
+        }
+
+        /**
+         * Checks whether a style is only held packed, not as strings.
+         */
+        private boolean isPacked(int ordinal) {
+            return packed != null && styleTexts[ordinal] == UNLOADED;
+        }
+
+        private int packedIndex(long value, int ordinal) {
+            long index = value - minValue;
+            return index >= 0 && index < packed.count(ordinal) ? (int) index : -1;
+        }
+
+        /**
+         * Gets an iterator of text to field for the specified style for the purpose of parsing.
+         * <p>
+         * The iterator must be returned in order from the longest text to the shortest.
+         *
+         * @param style the style to get text for, null for all parsable text
+         * @return the iterator of text to field pairs, in order from longest text to shortest text,
+         * null if the style is not parsable
+         */
+        Iterator<Entry<String, Long>> getTextIterator(TextStyle style) {
+            List<Entry<String, Long>> list = getParseList(style != null ? style.ordinal() : ALL_STYLES);
+            return list != null ? list.iterator() : null;
+        }
+
+        /**
+         * Checks whether the parse list of a style is built, for tracing.
+         *
+         * @param style the style, null for all parsable text
+         * @return true if the list is built
+         */
+        boolean hasParseList(TextStyle style) {
+            return parsable.get(style != null ? style.ordinal() : ALL_STYLES) != null;
+        }
+
+        /**
+         * Checks whether the parse trie of a style is built, for tracing.
+         *
+         * @param style the style, null for all parsable text
+         * @param matching how strictly the trie matches, not null
+         * @return true if the trie is built
+         */
+        boolean hasTrie(TextStyle style, TextMatching matching) {
+            int index = style != null ? style.ordinal() : ALL_STYLES;
+            return tries.get(matching.ordinal() * (ALL_STYLES + 1) + index) != null;
+        }
+
+        /**
+         * Finds the longest text of the specified style at a position for the purpose of parsing.
+         *
+         * @param text the text to parse, not null
+         * @param position the position to start matching at
+         * @param style the style to match, null for all parsable text
+         * @param matching how strictly to match, not null
+         * @return the length of the match in the upper 32 bits and its value in the lower 32 bits,
+         * negative if no text matches or the style is not parsable
+         */
+        long match(CharSequence text, int position, TextStyle style, TextMatching matching) {
+            TextTrie trie = getTrie(matching, style != null ? style.ordinal() : ALL_STYLES);
+            return trie != null ? trie.match(text, position) : -1;
+        }
+
+        /**
+         * Gets the value of a whole text of the specified style, matching exactly.
+         * <p>
+         * When several values have the text, the value is the one {@link #match} finds.
+         *
+         * @param text the text containing the text to look up, not null
+         * @param start the index of the first char to look up
+         * @param end the index after the last char to look up
+         * @param style the style to look up, null for all parsable text
+         * @return the value, negative if no text is equal or the style is not parsable
+         */
+        long getValue(CharSequence text, int start, int end, TextStyle style) {
+            TextIndex index = getIndex(style != null ? style.ordinal() : ALL_STYLES);
+            return index.get(text, start, end);
+        }
+
+        /**
+         * Checks whether the lookup index of a style is built, for tracing.
+         *
+         * @param style the style, null for all parsable text
+         * @return true if the index is built
+         */
+        boolean hasIndex(TextStyle style) {
+            return indexes.get(style != null ? style.ordinal() : ALL_STYLES) != null;
+        }
+
+        /**
+         * Checks whether the texts of a style are held as strings, rather than only packed or not loaded yet.
+         *
+         * @param style the style, not null
+         * @return true if the texts are held as strings
+         */
+        boolean hasTexts(TextStyle style) {
+            return styleTexts[style.ordinal()] != UNLOADED;
+        }
+
+        /**
+         * Checks whether some texts are still to be extracted by a loader, rather than unpacked.
+         *
+         * @return true if the store loads its texts lazily and has styles left to load
+         */
+        synchronized boolean isLazy() {
+            return loader != null && packed == null;
+        }
+
+        /**
+         * Computes a hash code of the style tables of a store created from interned tables,
+         * consistent with {@link #hasSameTables(LocaleStore)}.
+         *
+         * @return the hash code
+         */
+        int tablesHashCode() {
+            int hash = minValue;
+            for (String[] table : styleTexts) {
+                hash = 31 * hash + System.identityHashCode(table);
+            }
+            return hash;
+        }
+
+        /**
+         * Checks whether two stores created from interned tables have the same tables,
+         * which are compared by identity as equal tables are the same instance.
+         *
+         * @param other the other store, not null
+         * @return true if the stores have the same texts
+         */
+        boolean hasSameTables(LocaleStore other) {
+            String[][] styleTexts = this.styleTexts;
+            String[][] otherTexts = other.styleTexts;
+            if (minValue != other.minValue || styleTexts.length != otherTexts.length) {
+                return false;
+            }
+            for (int i = 0; i < styleTexts.length; i++) {
+                if (styleTexts[i] != otherTexts[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Estimates the heap retained by this store, for statistics.
+         * <p>
+         * Counts the loaded texts, their arrays and the parse data built so far,
+         * with the object sizes of a 32-bit runtime.
+         * Texts and arrays shared by several styles are counted once.
+         *
+         * @return the estimated number of bytes
+         */
+        long estimateRetainedBytes() {
+            String[][] styleTexts = this.styleTexts;
+            long bytes = packed != null ? packed.estimateRetainedBytes() : 0;
+            for (int i = 0; i < styleTexts.length; i++) {
+                String[] table = styleTexts[i];
+                if (table == null || table == UNLOADED || isSharedStyle(styleTexts, i)) {
+                    continue;
+                }
+                bytes += 16 + 4 * table.length;
+                for (String text : table) {
+                    bytes += 40 + 2 * text.length();  // string and its char array
+                }
+            }
+            for (int i = 0; i < parsable.length(); i++) {
+                List<Entry<String, Long>> list = parsable.get(i);
+                if (list != null) {
+                    bytes += 24 + list.size() * (2 * 16 + 16 + 4L);  // entries, boxed values, list slots
+                }
+            }
+            for (int i = 0; i < tries.length(); i++) {
+                TextTrie trie = tries.get(i);
+                if (trie != null) {
+                    bytes += trie.estimateRetainedBytes();
+                }
+            }
+            for (int i = 0; i < indexes.length(); i++) {
+                TextIndex index = indexes.get(i);
+                if (index != null && index != EMPTY_INDEX) {
+                    bytes += index.estimateRetainedBytes();
+                }
+            }
+            return bytes;
+        }
+
+        //-----------------------------------------------------------------------
+        private static boolean isSharedStyle(String[][] styleTexts, int ordinal) {
+            for (int i = 0; i < ordinal; i++) {
+                if (styleTexts[i] == styleTexts[ordinal]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Gets the texts of a style, loading them if needed.
+         */
+        private String[] getTexts(int ordinal) {
+            String[] texts = styleTexts[ordinal];
+            return texts != UNLOADED ? texts : load(ordinal);
+        }
+
+        /**
+         * Gets the texts of a style to build parse data from,
+         * unpacked without being kept if the style is only held packed.
+         */
+        private String[] getParsedTexts(int ordinal) {
+            return isPacked(ordinal) ? packed.unpack(ordinal) : getTexts(ordinal);
+        }
+
+        private synchronized String[] load(int ordinal) {
+            String[][] current = styleTexts;
+            if (current[ordinal] != UNLOADED) {
+                return current[ordinal];  // loaded by another thread
+            }
+            TextStyle style = STYLES[ordinal];
+            String[] texts = loader.load(style);
+            if (texts == null && style.isStandalone()) {
+                texts = load(style.asNormal().ordinal());
+            }
+            String[][] updated = styleTexts.clone();
+            updated[ordinal] = texts;
+            if (!Arrays.asList(updated).contains(UNLOADED)) {
+                loader = null;  // nothing left to load, release it
+            }
+            styleTexts = updated;
+            return texts;
+        }
+
+        private List<Entry<String, Long>> getParseList(int index) {
+            List<Entry<String, Long>> list = parsable.get(index);
+            if (list == null && !parsable.compareAndSet(index, null, list = buildParseList(index))) {
+                list = parsable.get(index);  // built by another thread
+            }
+            return list != EMPTY_PARSE_LIST ? list : null;
+        }
+
+        private List<Entry<String, Long>> buildParseList(int index) {
+            if (index == ALL_STYLES) {
+                List<Entry<String, Long>> allList = new ArrayList<Entry<String, Long>>();
+                boolean parsable = false;
+                for (int i = 0; i < ALL_STYLES; i++) {
+                    List<Entry<String, Long>> list = getParseList(i);
+                    if (list != null) {
+                        allList.addAll(list);
+                        parsable = true;
+                    }
+                }
+                Collections.sort(allList, COMPARATOR);
+                return parsable ? Collections.unmodifiableList(allList) : EMPTY_PARSE_LIST;
+            }
+            String[] texts = getParsedTexts(index);
+            if (texts == null) {
+                return EMPTY_PARSE_LIST;
+            }
+            Map<String, Entry<String, Long>> reverse = new HashMap<String, Entry<String, Long>>();
+            for (int i = 0; i < texts.length; i++) {
+                if (reverse.put(texts[i], createEntry(texts[i], (long) (minValue + i))) != null) {
+                    continue;  // not parsable, try next style
+                }
+            }
+            List<Entry<String, Long>> list = new ArrayList<Entry<String, Long>>(reverse.values());
+            Collections.sort(list, COMPARATOR);
+            return Collections.unmodifiableList(list);
+        }
+
+        private TextTrie getTrie(TextMatching matching, int index) {
+            int slot = matching.ordinal() * (ALL_STYLES + 1) + index;
+            TextTrie trie = tries.get(slot);
+            if (trie == null && !tries.compareAndSet(slot, null, trie = buildTrie(matching, index))) {
+                trie = tries.get(slot);  // built by another thread
+            }
+            return trie != EMPTY_TRIE ? trie : null;
+        }
+
+        private TextTrie buildTrie(TextMatching matching, int index) {
+            TextTrie.Builder builder = new TextTrie.Builder(matching);
+            boolean parsable = false;
+            int from = index == ALL_STYLES ? 0 : index;
+            int to = index == ALL_STYLES ? ALL_STYLES : index + 1;
+            for (int i = from; i < to; i++) {
+                String[] texts = getParsedTexts(i);  // the trie holds the chars, not the strings
+                if (texts == null) {
+                    continue;
+                }
+                // added last to first, so that a repeated text resolves to its last value like the lists
+                for (int j = texts.length - 1; j >= 0; j--) {
+                    builder.add(texts[j], minValue + j);
+                }
+                parsable = true;
+            }
+            return parsable || index == ALL_STYLES ? builder.build() : EMPTY_TRIE;
+        }
+
+        private TextIndex getIndex(int index) {
+            TextIndex textIndex = indexes.get(index);
+            if (textIndex == null && !indexes.compareAndSet(index, null, textIndex = buildIndex(index))) {
+                textIndex = indexes.get(index);  // built by another thread
+            }
+            return textIndex;
+        }
+
+        private TextIndex buildIndex(int index) {
+            TextIndex.Builder builder = new TextIndex.Builder();
+            boolean parsable = false;
+            int from = index == ALL_STYLES ? 0 : index;
+            int to = index == ALL_STYLES ? ALL_STYLES : index + 1;
+            for (int i = from; i < to; i++) {
+                String[] texts = getParsedTexts(i);  // loaded texts are shared with the index
+                if (texts == null) {
+                    continue;
+                }
+                // in the order of the trie, so that a repeated text resolves to the same value
+                for (int j = texts.length - 1; j >= 0; j--) {
+                    builder.add(texts[j], minValue + j);
+                }
+                parsable = true;
+            }
+            return parsable ? builder.build() : EMPTY_INDEX;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import android.icu.text.DateFormatSymbols;
+import java.util.Locale;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.TemporalField;
+
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_WEEK;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+/**
+ * Reads month and day-of-week texts from {@link DateFormatSymbols android.icu.text.DateFormatSymbols},
+ * available from Android 7.0 (API 24).
+ * <p>
+ * ICU exposes the standalone and narrow arrays directly, so every style is a single array copy
+ * instead of formatting a date per value with {@link java.text.SimpleDateFormat}.
+ * Other fields are left to the other sources, so their texts are the same on every API level.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+final class IcuTextSource implements TextSource {
+
+    /** ICU context of each style, indexed by style ordinal. */
+    private static final int[] CONTEXTS = {
+            DateFormatSymbols.FORMAT, DateFormatSymbols.STANDALONE,
+            DateFormatSymbols.FORMAT, DateFormatSymbols.STANDALONE,
+            DateFormatSymbols.FORMAT, DateFormatSymbols.STANDALONE};
+    /** ICU width of each style, indexed by style ordinal. */
+    private static final int[] WIDTHS = {
+            DateFormatSymbols.WIDE, DateFormatSymbols.WIDE,
+            DateFormatSymbols.ABBREVIATED, DateFormatSymbols.ABBREVIATED,
+            DateFormatSymbols.NARROW, DateFormatSymbols.NARROW};
+
+    @Override
+    public String[][] getTexts(TemporalField field, Locale locale) {
+        if (field == MONTH_OF_YEAR) {
+            DateFormatSymbols symbols = DateFormatSymbols.getInstance(locale);
+            String[][] styleTexts = new String[TextStyle.values().length][];
+            for (int i = 0; i < styleTexts.length; i++) {
+                styleTexts[i] = symbols.getMonths(CONTEXTS[i], WIDTHS[i]).clone();  // already January first
+            }
+            return styleTexts;
+        }
+        if (field == DAY_OF_WEEK) {
+            DateFormatSymbols symbols = DateFormatSymbols.getInstance(locale);
+            String[][] styleTexts = new String[TextStyle.values().length][];
+            for (int i = 0; i < styleTexts.length; i++) {
+                styleTexts[i] = createDaysFromSymbolsArray(symbols.getWeekdays(CONTEXTS[i], WIDTHS[i]));
+            }
+            return styleTexts;
+        }
+        return null;
+    }
+
+    private static String[] createDaysFromSymbolsArray(String[] array) {
+        //ICU days are from 1 (SUNDAY) to 7 (SATURDAY), ThreeTen days from 1 (MONDAY) to 7 (SUNDAY)
+        String[] texts = new String[7];
+        for (int i = 0; i < 7; i++) {
+            texts[i] = array[(i + 1) % 7 + 1];
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,195 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import android.os.Build;
+import java.text.DateFormatSymbols;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IllformedLocaleException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps requested locales to the locales whose texts they actually receive, so that equivalent locales share a store.
+ * <p>
+ * Unicode extensions such as {@code -u-nu-latn} do not change the texts of the supported fields,
+ * and a variant or region without platform data of its own falls back to its parent.
+ * A locale resolves to the most specific candidate, in this order, that
+ * {@link DateFormatSymbols#getAvailableLocales()} knows about:
+ * <ul>
+ * <li>language, script, region and variant, without extensions</li>
+ * <li>language, script and region</li>
+ * <li>language and script</li>
+ * <li>language and region, if there is a script</li>
+ * <li>language</li>
+ * </ul>
+ * A locale without any candidate resolves to the first one, which the platform handles as it would have anyway.
+ * Resolutions of up to {@value #MAX_RESOLUTIONS} requested locales are memoized,
+ * so that apps receiving arbitrary variants and extensions do not grow the memo without bound.
+ * Beyond that, the resolutions not used for the longest time are forgotten, with the same CLOCK
+ * approximation as the store cache, so the locales in use keep resolving without allocating.
+ * <p>
+ * This class is thread-safe.
+ */
+final class LocaleResolver {
+
+    /** Maximum number of memoized resolutions, far more than the locales of an app usually. */
+    static final int MAX_RESOLUTIONS = 256;
+
+    /** Resolutions so far, by requested locale. */
+    private final ConcurrentMap<Locale, Resolution> resolutions =
+            new ConcurrentHashMap<Locale, Resolution>(16, 0.75f, 2);
+    /** All resolutions in insertion order, swept by the eviction clock. */
+    private final Queue<Resolution> clock = new ConcurrentLinkedQueue<Resolution>();
+    /** The locales with platform data, null until first needed. */
+    private volatile Set<Locale> availableLocales;
+
+    //-----------------------------------------------------------------------
+
+    /**
+     * Resolves a locale.
+     *
+     * @param locale the requested locale, not null
+     * @return the locale whose texts the requested locale receives, not null
+     */
+    Locale resolve(Locale locale) {
+        Resolution resolution = resolutions.get(locale);
+        if (resolution != null) {
+            if (!resolution.referenced) {
+                resolution.referenced = true;
+            }
+            return resolution.resolved;
+        }
+        resolution = new Resolution(locale, computeResolution(locale));
+        if (resolutions.putIfAbsent(locale, resolution) == null) {
+            clock.add(resolution);
+            if (resolutions.size() > MAX_RESOLUTIONS) {
+                evict();
+            }
+        }
+        return resolution.resolved;
+    }
+
+    /**
+     * Forgets all resolutions, for example when memory is low.
+     */
+    void trim() {
+        resolutions.clear();
+        clock.clear();
+    }
+
+    /**
+     * Forgets all resolutions and the locales with platform data, which may have changed.
+     */
+    void clear() {
+        availableLocales = null;
+        trim();
+    }
+
+    /**
+     * Counts the memoized resolutions.
+     *
+     * @return the number of resolutions
+     */
+    int size() {
+        return resolutions.size();
+    }
+
+    /**
+     * Checks whether the resolution of a locale is memoized.
+     *
+     * @param locale the requested locale, not null
+     * @return true if the locale resolves without computing its resolution again
+     */
+    boolean isMemoized(Locale locale) {
+        return resolutions.containsKey(locale);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Forgets resolutions until at most {@link #MAX_RESOLUTIONS} remain,
+     * giving those used since the last sweep a second chance.
+     */
+    private synchronized void evict() {
+        while (resolutions.size() > MAX_RESOLUTIONS) {
+            Resolution resolution = clock.poll();
+            if (resolution == null) {
+                break;
+            }
+            if (resolution.referenced) {
+                resolution.referenced = false;
+                clock.add(resolution);
+            } else {
+                resolutions.remove(resolution.requested, resolution);
+            }
+        }
+    }
+
+    private Locale computeResolution(Locale locale) {
+        List<Locale> candidates = candidates(locale);
+        Set<Locale> available = getAvailableLocales();
+        for (Locale candidate : candidates) {
+            if (available.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return candidates.get(0);
+    }
+
+    private static List<Locale> candidates(Locale locale) {
+        String language = locale.getLanguage();
+        String country = locale.getCountry();
+        String variant = locale.getVariant();
+        List<Locale> candidates = new ArrayList<Locale>(5);
+        String script = Build.VERSION.SDK_INT >= 21 ? locale.getScript() : "";
+        if (!script.isEmpty()) {
+            try {
+                Locale.Builder builder = new Locale.Builder().setLanguage(language).setScript(script);
+                candidates.add(builder.setRegion(country).setVariant(variant).build());
+                candidates.add(builder.setVariant("").build());
+                candidates.add(builder.setRegion("").build());
+            } catch (IllformedLocaleException ex) {
+                // legacy variant, keep the locale apart
+                candidates.add(locale);
+                return candidates;
+            }
+        } else {
+            candidates.add(new Locale(language, country, variant));  // drops any extensions
+        }
+        candidates.add(new Locale(language, country));
+        candidates.add(new Locale(language));
+        return candidates;
+    }
+
+    private Set<Locale> getAvailableLocales() {
+        Set<Locale> available = availableLocales;
+        if (available == null) {
+            available = new HashSet<Locale>(Arrays.asList(DateFormatSymbols.getAvailableLocales()));
+            availableLocales = available;
+        }
+        return available;
+    }
+
+    /**
+     * A memoized resolution.
+     */
+    private static final class Resolution {
+        final Locale requested;
+        final Locale resolved;
+        /**
+         * Whether the resolution was used since the eviction clock last passed it.
+         * Races are harmless, as eviction order is only approximate.
+         */
+        boolean referenced;
+
+        Resolution(Locale requested, Locale resolved) {
+            this.requested = requested;
+            this.resolved = resolved;
+        }
+    }
+}
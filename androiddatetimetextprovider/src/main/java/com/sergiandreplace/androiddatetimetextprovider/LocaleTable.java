@@ -0,0 +1,153 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Locale;
+
+/**
+ * An immutable hash table keyed by locale, for caches read far more often than written.
+ * <p>
+ * Keys and values are held in two arrays probed linearly from the hash of the key,
+ * so a lookup reads a few array slots and writes nothing: once published through
+ * a volatile reference, any number of threads can read the table without contending.
+ * Changes copy the table, which only pays off when they are rare and can be batched.
+ * <p>
+ * This class is immutable and thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+final class LocaleTable<V> {
+
+    /** The empty table. */
+    private static final LocaleTable<Object> EMPTY = new LocaleTable<Object>(new Locale[1], new Object[1], 0);
+
+    /** Keys by slot, null for empty slots. The length is a power of two. */
+    private final Locale[] keys;
+    /** Values by slot. */
+    private final Object[] values;
+    /** Number of entries. */
+    private final int size;
+
+    private LocaleTable(Locale[] keys, Object[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Gets the empty table.
+     *
+     * @param <V> the type of the values
+     * @return the empty table, not null
+     */
+    @SuppressWarnings("unchecked")
+    static <V> LocaleTable<V> empty() {
+        return (LocaleTable<V>) EMPTY;
+    }
+
+    /**
+     * Creates a table with the given entries.
+     * If a key is repeated, its last value is kept.
+     *
+     * @param <V> the type of the values
+     * @param keys the keys, not null, no null keys
+     * @param values the values, in the order of the keys, not null
+     * @param count the number of entries to take from the arrays
+     * @return the table, not null
+     */
+    static <V> LocaleTable<V> of(Locale[] keys, Object[] values, int count) {
+        if (count == 0) {
+            return empty();
+        }
+        int capacity = Integer.highestOneBit(count * 2 - 1) << 1;  // at most half full
+        Locale[] tableKeys = new Locale[capacity];
+        Object[] tableValues = new Object[capacity];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = slot(tableKeys, keys[i]);
+            if (tableKeys[slot] == null) {
+                tableKeys[slot] = keys[i];
+                size++;
+            }
+            tableValues[slot] = values[i];
+        }
+        return new LocaleTable<V>(tableKeys, tableValues, size);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the value of a locale.
+     *
+     * @param locale the locale, not null
+     * @return the value, null if the locale is not in the table
+     */
+    @SuppressWarnings("unchecked")
+    V get(Locale locale) {
+        Locale[] keys = this.keys;
+        int mask = keys.length - 1;
+        for (int slot = hash(locale) & mask; ; slot = (slot + 1) & mask) {
+            Locale key = keys[slot];
+            if (key == locale) {
+                return (V) values[slot];
+            }
+            if (key == null) {
+                return null;
+            }
+            if (key.equals(locale)) {
+                return (V) values[slot];
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of slots, the bound of {@link #keyAt(int)} and {@link #valueAt(int)}.
+     *
+     * @return the number of slots
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the key in a slot.
+     *
+     * @param slot the slot, from zero to the capacity
+     * @return the key, null if the slot is empty
+     */
+    Locale keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Gets the value in a slot.
+     *
+     * @param slot the slot, from zero to the capacity
+     * @return the value, null if the slot is empty
+     */
+    @SuppressWarnings("unchecked")
+    V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    //-----------------------------------------------------------------------
+    private static int slot(Locale[] keys, Locale locale) {
+        int mask = keys.length - 1;
+        int slot = hash(locale) & mask;
+        while (keys[slot] != null && !keys[slot].equals(locale)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(Locale locale) {
+        int hash = locale.hashCode();
+        return hash ^ (hash >>> 16);  // spread the high bits to the few used by small tables
+    }
+}
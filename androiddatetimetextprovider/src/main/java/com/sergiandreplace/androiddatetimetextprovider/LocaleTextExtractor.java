@@ -0,0 +1,352 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import android.os.Build;
+import java.text.DateFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.IsoFields;
+import org.threeten.bp.temporal.TemporalField;
+
+import static org.threeten.bp.temporal.ChronoField.AMPM_OF_DAY;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_WEEK;
+import static org.threeten.bp.temporal.ChronoField.ERA;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+/**
+ * Extracts the texts of all fields of a single locale from {@link DateFormatSymbols} and {@link SimpleDateFormat}.
+ * <p>
+ * The symbols and the date format, with its calendar, are created on first use
+ * and shared by every field extracted afterwards, so extracting all fields of a locale
+ * costs little more than extracting one.
+ * <p>
+ * This class is mutable and not thread-safe.
+ */
+final class LocaleTextExtractor {
+
+    /** The number of text styles. */
+    private static final int STYLE_COUNT = TextStyle.values().length;
+
+    /** The locale to extract. */
+    private final Locale locale;
+    /** The tracer of each extraction pass. */
+    private final Tracer tracer;
+    /** The symbols, null until first used. */
+    private DateFormatSymbols symbols;
+    /** The date format, null until first used. */
+    private SimpleDateFormat dateFormat;
+
+    /**
+     * Constructor.
+     *
+     * @param locale the locale to extract, not null
+     */
+    LocaleTextExtractor(Locale locale) {
+        this(locale, Tracer.NONE);
+    }
+
+    /**
+     * Constructor tracing the extraction of each style.
+     *
+     * @param locale the locale to extract, not null
+     * @param tracer the tracer, not null
+     */
+    LocaleTextExtractor(Locale locale, Tracer tracer) {
+        this.locale = locale;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Checks whether any platform data has been loaded yet.
+     *
+     * @return true if symbols or a date format were created
+     */
+    boolean isStarted() {
+        return symbols != null || dateFormat != null;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks whether a field has texts.
+     *
+     * @param field the field, not null
+     * @return true if the texts of the field can be extracted
+     */
+    static boolean isSupported(TemporalField field) {
+        return field == MONTH_OF_YEAR || field == DAY_OF_WEEK || field == AMPM_OF_DAY || field == ERA
+                || field == IsoFields.QUARTER_OF_YEAR;
+    }
+
+    /**
+     * Extracts the texts of all styles of a field.
+     *
+     * @param field the field, not null
+     * @return the texts indexed by style ordinal and value offset, null if the field has no text
+     */
+    String[][] extract(TemporalField field) {
+        if (!isSupported(field)) {
+            return null;
+        }
+        String[][] styleTexts = new String[STYLE_COUNT][];
+        for (TextStyle style : TextStyle.values()) {
+            styleTexts[style.ordinal()] = extract(field, style);
+        }
+        return styleTexts;
+    }
+
+    /**
+     * Extracts the texts of a field found in the symbols, without formatting any date.
+     * <p>
+     * This is much cheaper than {@link #extract(TemporalField)}, but months and days of the week
+     * only get the full and short styles, with the narrow style being the first letter of the full one.
+     *
+     * @param field the field, not null
+     * @return the texts indexed by style ordinal and value offset, null if the field has no text
+     */
+    String[][] extractFromSymbols(TemporalField field) {
+        if (field != MONTH_OF_YEAR && field != DAY_OF_WEEK) {
+            return extract(field);  // the other fields only use the symbols
+        }
+        String[][] styleTexts = new String[STYLE_COUNT][];
+        String[] full = extract(field, TextStyle.FULL);
+        String[] narrow = new String[full.length];
+        for (int i = 0; i < full.length; i++) {
+            narrow[i] = full[i].substring(0, 1);
+        }
+        styleTexts[TextStyle.FULL.ordinal()] = full;
+        styleTexts[TextStyle.SHORT.ordinal()] = extract(field, TextStyle.SHORT);
+        styleTexts[TextStyle.NARROW.ordinal()] = narrow;
+        return styleTexts;
+    }
+
+    /**
+     * Extracts the texts of a single style of a field.
+     *
+     * @param field the field, not null
+     * @param style the style, not null
+     * @return the texts indexed by value offset, null if the field has no text in the style
+     */
+    String[] extract(TemporalField field, TextStyle style) {
+        tracer.beginSection("extract", field, locale, style);
+        try {
+            return extractStyle(field, style);
+        } finally {
+            tracer.endSection();
+        }
+    }
+
+    private String[] extractStyle(TemporalField field, TextStyle style) {
+        if (field == MONTH_OF_YEAR) {
+            //Uses the same assumptions about months as SimpleDateTimeTextProvider.
+            switch (style) {
+                case FULL:
+                    return createMonthsFromSymbolsArray(getSymbols().getMonths());
+                case SHORT:
+                    return createMonthsFromSymbolsArray(getSymbols().getShortMonths());
+                case FULL_STANDALONE:
+                    return createMonthsFromPattern(getDateFormat(), "LLLL");
+                case SHORT_STANDALONE:
+                    return createMonthsFromPattern(getDateFormat(), "LLL");
+                case NARROW:
+                    return Build.VERSION.SDK_INT >= 18
+                            ? createMonthsFromPattern(getDateFormat(), "MMMMM")
+                            : createNarrowMonthsFromPattern(getDateFormat(), "MMMM");
+                default:
+                    return Build.VERSION.SDK_INT >= 18
+                            ? createMonthsFromPattern(getDateFormat(), "LLLLL")
+                            : createNarrowMonthsFromPattern(getDateFormat(), "LLLL");
+            }
+        }
+        if (field == DAY_OF_WEEK) {
+            switch (style) {
+                case FULL:
+                    return createDaysFromSymbolsArray(getSymbols().getWeekdays());
+                case SHORT:
+                    return createDaysFromSymbolsArray(getSymbols().getShortWeekdays());
+                case FULL_STANDALONE:
+                    return createDaysFromPattern(getDateFormat(), "cccc");
+                case SHORT_STANDALONE:
+                    return createDaysFromPattern(getDateFormat(), "ccc");
+                case NARROW:
+                    return Build.VERSION.SDK_INT >= 18
+                            ? createDaysFromPattern(getDateFormat(), "EEEEE")
+                            : createNarrowDaysFromPattern(getDateFormat(), "EEEE");
+                default:
+                    return Build.VERSION.SDK_INT >= 18
+                            ? createDaysFromPattern(getDateFormat(), "ccccc")
+                            : createNarrowDaysFromPattern(getDateFormat(), "cccc");
+            }
+        }
+        if (field == AMPM_OF_DAY) {
+            if (style != TextStyle.FULL && style != TextStyle.SHORT) {
+                return null;
+            }
+            // the same texts for both, as we don't have different data
+            String[] array = getSymbols().getAmPmStrings();
+            return new String[] {array[Calendar.AM], array[Calendar.PM]};
+        }
+        if (field == ERA) {
+            String[] array = getSymbols().getEras();
+            switch (style) {
+                case SHORT:
+                    return new String[] {array[GregorianCalendar.BC], array[GregorianCalendar.AD]};
+                case FULL:
+                    if (locale.getLanguage().equals(Locale.ENGLISH.getLanguage())) {
+                        return new String[] {"Before Christ", "Anno Domini"};
+                    }
+                    // re-use, as we don't have different data
+                    return new String[] {array[GregorianCalendar.BC], array[GregorianCalendar.AD]};
+                case NARROW:
+                    return new String[] {
+                            array[GregorianCalendar.BC].substring(0, 1),
+                            array[GregorianCalendar.AD].substring(0, 1)};
+                default:
+                    return null;
+            }
+        }
+        // hard code English quarter text
+        if (field == IsoFields.QUARTER_OF_YEAR) {
+            switch (style) {
+                case SHORT:
+                    return new String[] {"Q1", "Q2", "Q3", "Q4"};
+                case FULL:
+                    return new String[] {"1st quarter", "2nd quarter", "3rd quarter", "4th quarter"};
+                default:
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    private int calMonthToThreeTenMonth(int calMonth) {
+        //Calendar months are from 0 (JANUARY) to 11 (DECEMBER)
+        //ThreeTen months are from 1 (JANUARY) to 12 (DECEMBER)
+        return calMonth + 1;
+    }
+
+    private int calDayToThreeTenDay(int calDay) {
+        //Calendar days start from SUNDAY
+        //ThreeTen days start from MONDAY
+        //So 1 -> 7, 2 -> 1, ..., 7 -> 6
+        return ((calDay + 5) % 7) + 1;
+    }
+
+    private String[] createMonthsFromSymbolsArray(String[] array) {
+        String[] texts = new String[12];
+        for (int calMonth = Calendar.JANUARY; calMonth <= Calendar.DECEMBER; ++calMonth) {
+            int threeTenMonth = calMonthToThreeTenMonth(calMonth);
+            texts[threeTenMonth - 1] = array[calMonth];
+        }
+        return texts;
+    }
+
+    private String[] createMonthsFromPattern(
+            SimpleDateFormat dateFormat, String pattern) {
+        if (!applyPattern(dateFormat, pattern)) {
+            return null;
+        }
+
+        String[] texts = new String[12];
+        for (int calMonth = Calendar.JANUARY; calMonth <= Calendar.DECEMBER; ++calMonth) {
+            int threeTenMonth = calMonthToThreeTenMonth(calMonth);
+            dateFormat.getCalendar().set(Calendar.MONTH, calMonth);
+            String formattedMonth = dateFormat.format(dateFormat.getCalendar().getTime());
+            texts[threeTenMonth - 1] = formattedMonth;
+        }
+        return texts;
+    }
+
+    private String[] createNarrowMonthsFromPattern(
+            SimpleDateFormat dateFormat, String pattern) {
+        if (!applyPattern(dateFormat, pattern)) {
+            return null;
+        }
+
+        String[] texts = new String[12];
+        for (int calMonth = Calendar.JANUARY; calMonth <= Calendar.DECEMBER; ++calMonth) {
+            int threeTenMonth = calMonthToThreeTenMonth(calMonth);
+            dateFormat.getCalendar().set(Calendar.MONTH, calMonth);
+            String formattedMonth = dateFormat.format(dateFormat.getCalendar().getTime());
+            texts[threeTenMonth - 1] = formattedMonth.substring(0, 1);
+        }
+        return texts;
+    }
+
+    private String[] createDaysFromSymbolsArray(String[] array) {
+        String[] texts = new String[7];
+        for (int calDay = Calendar.SUNDAY; calDay <= Calendar.SATURDAY; ++calDay) {
+            int threeTenDay = calDayToThreeTenDay(calDay);
+            texts[threeTenDay - 1] = array[calDay];
+        }
+        return texts;
+    }
+
+    private String[] createDaysFromPattern(
+            SimpleDateFormat dateFormat, String pattern) {
+        if (!applyPattern(dateFormat, pattern)) {
+            return null;
+        }
+
+        String[] texts = new String[7];
+        for (int calDay = Calendar.SUNDAY; calDay <= Calendar.SATURDAY; ++calDay) {
+            int threeTenDay = calDayToThreeTenDay(calDay);
+            dateFormat.getCalendar().set(Calendar.DAY_OF_WEEK, calDay);
+            String formattedDay = dateFormat.format(dateFormat.getCalendar().getTime());
+            texts[threeTenDay - 1] = formattedDay;
+        }
+        return texts;
+    }
+
+    private String[] createNarrowDaysFromPattern(
+            SimpleDateFormat dateFormat, String pattern) {
+        if (!applyPattern(dateFormat, pattern)) {
+            return null;
+        }
+
+        String[] texts = new String[7];
+        for (int calDay = Calendar.SUNDAY; calDay <= Calendar.SATURDAY; ++calDay) {
+            int threeTenDay = calDayToThreeTenDay(calDay);
+            dateFormat.getCalendar().set(Calendar.DAY_OF_WEEK, calDay);
+            String formattedDay = dateFormat.format(dateFormat.getCalendar().getTime());
+            texts[threeTenDay - 1] = formattedDay.substring(0, 1);
+        }
+        return texts;
+    }
+
+    /**
+     * Applies a pattern, unless the runtime does not support its letters.
+     * <p>
+     * Android supports all the patterns used here, but the JVM does not support
+     * the standalone letter 'c', so when running there the texts of styles
+     * without a pattern are left missing and fall back to the format style.
+     *
+     * @param dateFormat the date format, not null
+     * @param pattern the pattern, not null
+     * @return true if the pattern was applied
+     */
+    static boolean applyPattern(SimpleDateFormat dateFormat, String pattern) {
+        try {
+            dateFormat.applyPattern(pattern);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    private DateFormatSymbols getSymbols() {
+        if (symbols == null) {
+            symbols = DateFormatSymbols.getInstance(locale);
+        }
+        return symbols;
+    }
+
+    private SimpleDateFormat getDateFormat() {
+        if (dateFormat == null) {
+            dateFormat = new SimpleDateFormat("", locale);
+        }
+        return dateFormat;
+    }
+}
@@ -0,0 +1,38 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+/**
+ * What the provider does when texts missing from the cache are needed on the main thread.
+ * <p>
+ * Extracting the texts of a locale takes a few milliseconds, enough to drop a frame,
+ * and it happens on the first use of each field and locale, wherever that is.
+ * A typical setup is {@link #THROW} in debug builds, to find those uses during development,
+ * and {@link #FALLBACK} in release builds, to never extract texts on the main thread.
+ *
+ * @see AndroidDateTimeTextProvider.Builder#mainThreadPolicy(MainThreadPolicy)
+ */
+public enum MainThreadPolicy {
+
+    /**
+     * Builds the texts on the main thread, as on any other thread. This is the default.
+     */
+    ALLOW,
+    /**
+     * Builds the texts on the main thread, logging a warning with the stack trace of the lookup.
+     */
+    LOG,
+    /**
+     * Throws an {@link IllegalStateException} from the lookup, without building the texts.
+     */
+    THROW,
+    /**
+     * Serves texts read cheaply from {@code java.text.DateFormatSymbols},
+     * while the texts are built on the background executor.
+     * <p>
+     * The fallback texts have the full and short styles of the field, with the narrow style
+     * being the first letter of the full one, as ThreeTen's default provider does.
+     * Standalone styles are the same as the others until the texts are built.
+     *
+     * @see AndroidDateTimeTextProvider.Builder#backgroundExecutor(java.util.concurrent.Executor)
+     */
+    FALLBACK
+}
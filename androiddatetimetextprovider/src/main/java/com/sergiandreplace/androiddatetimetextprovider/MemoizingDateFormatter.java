@@ -0,0 +1,165 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Locale;
+import org.threeten.bp.DateTimeException;
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.format.DateTimeFormatter;
+
+/**
+ * Formats dates with a {@link DateTimeFormatter}, remembering the texts of recently formatted dates.
+ * <p>
+ * UIs often render the same dates over and over with the same pattern, such as the days
+ * of a calendar. Formatting goes through every field of the pattern and the text provider
+ * each time, while a remembered text is found with a single array read keyed by the epoch day
+ * of the date, without allocating.
+ * <p>
+ * The texts are kept in a table of a fixed number of slots, the epoch day modulo the size,
+ * so consecutive dates never replace each other and a window of {@link #getMaximumSize()}
+ * consecutive days, such as a year, is kept entirely.
+ * A formatter only formats with the pattern and locale of the {@code DateTimeFormatter} it wraps,
+ * so use one instance per pattern and locale, and {@link #withLocale(Locale)} when the locale changes.
+ * <p>
+ * This class is thread-safe: racing threads may both format a date, but always get the same text.
+ */
+public final class MemoizingDateFormatter {
+
+    /** The wrapped formatter. */
+    private final DateTimeFormatter formatter;
+    /** The remembered texts, by epoch day modulo the length, which is a power of two. */
+    private final FormattedDate[] dates;
+
+    /**
+     * Creates a formatter remembering the texts of at least the given number of dates.
+     *
+     * @param formatter the formatter to use, formatting dates only, not null
+     * @param maximumSize the number of consecutive dates remembered, at least one
+     */
+    public MemoizingDateFormatter(DateTimeFormatter formatter, int maximumSize) {
+        if (formatter == null) {
+            throw new NullPointerException("formatter");
+        }
+        if (maximumSize < 1 || maximumSize > 1 << 30) {
+            throw new IllegalArgumentException("Maximum size must be from one to 2^30: " + maximumSize);
+        }
+        this.formatter = formatter;
+        this.dates = new FormattedDate[Integer.highestOneBit(maximumSize * 2 - 1)];  // rounded up to a power of two
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Formats a date, or gets its text if it was formatted recently.
+     *
+     * @param date the date to format, not null
+     * @return the text, not null
+     * @throws DateTimeException if the date cannot be formatted, for example if the pattern has time fields
+     */
+    public String format(LocalDate date) {
+        return format(date.toEpochDay(), date);
+    }
+
+    /**
+     * Formats the date of an epoch day, or gets its text if it was formatted recently.
+     * <p>
+     * This is the same as {@link #format(LocalDate)}, for callers storing dates as epoch days,
+     * and it only creates the date when formatting it.
+     *
+     * @param epochDay the date as a number of days from 1970-01-01
+     * @return the text, not null
+     * @throws DateTimeException if the date cannot be formatted, for example if the pattern has time fields
+     */
+    public String format(long epochDay) {
+        return format(epochDay, null);
+    }
+
+    /**
+     * Formats all the dates of a year, so that formatting them later finds their texts.
+     * <p>
+     * The dates are formatted in a single pass sharing a buffer.
+     * Only the last dates of the year are kept if the year has more days than {@link #getMaximumSize()}.
+     *
+     * @param year the year to format
+     * @throws DateTimeException if the dates cannot be formatted, for example if the pattern has time fields
+     */
+    public void precomputeYear(int year) {
+        LocalDate date = LocalDate.of(year, 1, 1);
+        long epochDay = date.toEpochDay();
+        int length = date.lengthOfYear();
+        StringBuilder buf = new StringBuilder(32);
+        for (int i = 0; i < length; i++) {
+            FormattedDate formatted = dates[slot(epochDay + i)];
+            if (formatted == null || formatted.epochDay != epochDay + i) {
+                buf.setLength(0);
+                formatter.formatTo(date, buf);
+                dates[slot(epochDay + i)] = new FormattedDate(epochDay + i, buf.toString());
+            }
+            date = date.plusDays(1);
+        }
+    }
+
+    /**
+     * Forgets all texts, for example after the text provider was invalidated.
+     */
+    public void clear() {
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = null;
+        }
+    }
+
+    /**
+     * Creates a formatter for another locale, remembering the same number of dates.
+     * The texts remembered by this formatter are not shared.
+     *
+     * @param locale the locale, not null
+     * @return the formatter, not null
+     */
+    public MemoizingDateFormatter withLocale(Locale locale) {
+        return new MemoizingDateFormatter(formatter.withLocale(locale), dates.length);
+    }
+
+    /**
+     * Gets the wrapped formatter.
+     *
+     * @return the formatter, not null
+     */
+    public DateTimeFormatter getFormatter() {
+        return formatter;
+    }
+
+    /**
+     * Gets the number of consecutive dates remembered, the maximum size requested rounded up to a power of two.
+     *
+     * @return the number of dates
+     */
+    public int getMaximumSize() {
+        return dates.length;
+    }
+
+    //-----------------------------------------------------------------------
+    private String format(long epochDay, LocalDate date) {
+        int slot = slot(epochDay);
+        FormattedDate formatted = dates[slot];
+        if (formatted != null && formatted.epochDay == epochDay) {
+            return formatted.text;
+        }
+        String text = formatter.format(date != null ? date : LocalDate.ofEpochDay(epochDay));
+        dates[slot] = new FormattedDate(epochDay, text);
+        return text;
+    }
+
+    private int slot(long epochDay) {
+        return (int) epochDay & (dates.length - 1);
+    }
+
+    /**
+     * The text of a date, immutable so that racing threads never see a text paired with another date.
+     */
+    private static final class FormattedDate {
+        final long epochDay;
+        final String text;
+
+        FormattedDate(long epochDay, String text) {
+            this.epochDay = epochDay;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The texts of all styles of a store packed into a single char array.
+ * <p>
+ * A text is a range of the array, given by a start and an end in the bounds table,
+ * and a style is a run of consecutive texts. Equal texts and equal styles share their chars and bounds,
+ * so a store takes two chars per distinct character plus eight bytes per text,
+ * instead of a {@code String} and its own char array per text.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+final class PackedTexts {
+
+    /** The chars of all distinct texts. */
+    private final char[] chars;
+    /** The start and end of every text in {@link #chars}, two entries per text. */
+    private final int[] bounds;
+    /** The index of the first text of each style, by style ordinal. */
+    private final int[] styleFirst;
+    /** The number of texts of each style, by style ordinal, negative for styles without texts. */
+    private final int[] styleCount;
+    /** The hash code, as instances are interned. */
+    private final int hash;
+
+    private PackedTexts(char[] chars, int[] bounds, int[] styleFirst, int[] styleCount) {
+        this.chars = chars;
+        this.bounds = bounds;
+        this.styleFirst = styleFirst;
+        this.styleCount = styleCount;
+        this.hash = ((Arrays.hashCode(chars) * 31 + Arrays.hashCode(bounds)) * 31
+                + Arrays.hashCode(styleFirst)) * 31 + Arrays.hashCode(styleCount);
+    }
+
+    /**
+     * Packs texts.
+     *
+     * @param styleTexts the texts indexed by style ordinal and value offset, not altered, not null
+     * @return the packed texts, not null
+     */
+    static PackedTexts pack(String[][] styleTexts) {
+        StringBuilder buf = new StringBuilder();
+        Map<String, Integer> textStarts = new HashMap<String, Integer>();
+        int textCount = 0;
+        for (String[] texts : styleTexts) {
+            textCount += texts != null ? texts.length : 0;
+        }
+        int[] bounds = new int[textCount * 2];
+        int[] styleFirst = new int[styleTexts.length];
+        int[] styleCount = new int[styleTexts.length];
+        int text = 0;
+        for (int style = 0; style < styleTexts.length; style++) {
+            String[] texts = styleTexts[style];
+            styleCount[style] = texts != null ? texts.length : -1;
+            int shared = sharedStyle(styleTexts, style);
+            if (texts == null || shared >= 0) {
+                styleFirst[style] = shared >= 0 ? styleFirst[shared] : 0;
+                continue;
+            }
+            styleFirst[style] = text;
+            for (String value : texts) {
+                Integer start = textStarts.get(value);
+                if (start == null) {
+                    start = buf.length();
+                    buf.append(value);
+                    textStarts.put(value, start);
+                }
+                bounds[text * 2] = start;
+                bounds[text * 2 + 1] = start + value.length();
+                text++;
+            }
+        }
+        char[] chars = new char[buf.length()];
+        buf.getChars(0, chars.length, chars, 0);
+        return new PackedTexts(chars, Arrays.copyOf(bounds, text * 2), styleFirst, styleCount);
+    }
+
+    private static int sharedStyle(String[][] styleTexts, int style) {
+        for (int i = 0; i < style; i++) {
+            if (styleTexts[i] != null && Arrays.equals(styleTexts[i], styleTexts[style])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //-----------------------------------------------------------------------
+
+    /**
+     * Gets the number of texts of a style.
+     *
+     * @param style the style ordinal
+     * @return the number of texts, negative if the style has no texts
+     */
+    int count(int style) {
+        return styleCount[style];
+    }
+
+    /**
+     * Unpacks the texts of a style as strings.
+     *
+     * @param style the style ordinal
+     * @return the texts indexed by value offset, null if the style has no texts
+     */
+    String[] unpack(int style) {
+        int count = styleCount[style];
+        if (count < 0) {
+            return null;
+        }
+        String[] texts = new String[count];
+        for (int i = 0; i < count; i++) {
+            int text = styleFirst[style] + i;
+            texts[i] = new String(chars, bounds[text * 2], bounds[text * 2 + 1] - bounds[text * 2]);
+        }
+        return texts;
+    }
+
+    /**
+     * Appends a text to a builder.
+     *
+     * @param style the style ordinal
+     * @param index the index of the text within the style, valid
+     * @param buf the builder, not null
+     */
+    void append(int style, int index, StringBuilder buf) {
+        int text = styleFirst[style] + index;
+        buf.append(chars, bounds[text * 2], bounds[text * 2 + 1] - bounds[text * 2]);
+    }
+
+    /**
+     * Appends a text to an appendable, char by char so that no view is created.
+     *
+     * @param style the style ordinal
+     * @param index the index of the text within the style, valid
+     * @param appendable the appendable, not null
+     * @throws IOException if the appendable fails
+     */
+    void append(int style, int index, Appendable appendable) throws IOException {
+        int text = styleFirst[style] + index;
+        for (int i = bounds[text * 2]; i < bounds[text * 2 + 1]; i++) {
+            appendable.append(chars[i]);
+        }
+    }
+
+    /**
+     * Copies a text into a char array.
+     *
+     * @param style the style ordinal
+     * @param index the index of the text within the style, valid
+     * @param destination the array, not null
+     * @param offset the index to copy the first char to
+     * @return the number of chars copied
+     */
+    int getChars(int style, int index, char[] destination, int offset) {
+        int text = styleFirst[style] + index;
+        int length = bounds[text * 2 + 1] - bounds[text * 2];
+        System.arraycopy(chars, bounds[text * 2], destination, offset, length);
+        return length;
+    }
+
+    /**
+     * Estimates the heap retained, with the object sizes of a 32-bit runtime.
+     *
+     * @return the estimated number of bytes
+     */
+    long estimateRetainedBytes() {
+        return 16 + 4 * 16 + 2L * chars.length + 4L * (bounds.length + styleFirst.length + styleCount.length);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof PackedTexts) {
+            PackedTexts other = (PackedTexts) obj;
+            return hash == other.hash && Arrays.equals(chars, other.chars) && Arrays.equals(bounds, other.bounds)
+                    && Arrays.equals(styleFirst, other.styleFirst) && Arrays.equals(styleCount, other.styleCount);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,186 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * A snapshot of the statistics of an {@link AndroidDateTimeTextProvider}.
+ * <p>
+ * Counters are cumulative since the provider was created, while the store counts
+ * and retained sizes describe the cache at the time of the snapshot.
+ * Store creation times, including the extraction of each style loaded later by lazy stores,
+ * are kept as a histogram with power-of-two buckets:
+ * bucket zero counts creations under one microsecond, and bucket {@code i}
+ * creations from 2<sup>i-1</sup> up to 2<sup>i</sup> microseconds,
+ * with the last bucket counting everything slower.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class ProviderStatistics {
+
+    /** The number of buckets of the creation time histograms. */
+    public static final int BUCKET_COUNT = 24;
+
+    private final Map<TemporalField, long[]> counts;
+    private final Map<TemporalField, long[]> creationTimes;
+    private final long unsupportedLookups;
+    private final long evictionCount;
+    private final Map<Locale, Integer> storeCounts;
+    private final Map<Locale, Long> retainedBytes;
+
+    private ProviderStatistics(Builder builder) {
+        counts = Collections.unmodifiableMap(builder.counts);
+        creationTimes = Collections.unmodifiableMap(builder.creationTimes);
+        unsupportedLookups = builder.unsupportedLookups;
+        evictionCount = builder.evictionCount;
+        storeCounts = Collections.unmodifiableMap(builder.storeCounts);
+        retainedBytes = Collections.unmodifiableMap(builder.retainedBytes);
+    }
+
+    //-----------------------------------------------------------------------
+
+    /**
+     * Gets the number of lookups of a field served from the cache.
+     *
+     * @param field the field, not null
+     * @return the number of hits, zero for fields without text
+     */
+    public long getHitCount(TemporalField field) {
+        long[] fieldCounts = counts.get(field);
+        return fieldCounts != null ? fieldCounts[0] : 0;
+    }
+
+    /**
+     * Gets the number of lookups of a field that had to build its texts.
+     *
+     * @param field the field, not null
+     * @return the number of misses, zero for fields without text
+     */
+    public long getMissCount(TemporalField field) {
+        long[] fieldCounts = counts.get(field);
+        return fieldCounts != null ? fieldCounts[1] : 0;
+    }
+
+    /**
+     * Gets the histogram of the time taken to build the stores of a field,
+     * and to load each style of the lazy ones.
+     *
+     * @param field the field, not null
+     * @return a copy of the histogram, {@link #BUCKET_COUNT} buckets long, not null
+     */
+    public long[] getCreationTimeHistogram(TemporalField field) {
+        long[] histogram = creationTimes.get(field);
+        return histogram != null ? histogram.clone() : new long[BUCKET_COUNT];
+    }
+
+    /**
+     * Gets the upper bound of a bucket of the creation time histograms.
+     *
+     * @param bucket the bucket, from zero to {@link #BUCKET_COUNT} minus one
+     * @return the exclusive upper bound in microseconds, {@code Long.MAX_VALUE} for the last bucket
+     */
+    public static long getBucketLimitMicros(int bucket) {
+        if (bucket < 0 || bucket >= BUCKET_COUNT) {
+            throw new IndexOutOfBoundsException("Invalid bucket: " + bucket);
+        }
+        return bucket < BUCKET_COUNT - 1 ? 1L << bucket : Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the number of lookups of fields without text, which the provider answers with no text.
+     *
+     * @return the number of lookups of unsupported fields
+     */
+    public long getUnsupportedFieldCount() {
+        return unsupportedLookups;
+    }
+
+    /**
+     * Gets the number of stores evicted from the cache.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the number of cached stores of each locale, one per field used.
+     *
+     * @return the store counts by locale, unmodifiable, not null
+     */
+    public Map<Locale, Integer> getStoreCounts() {
+        return storeCounts;
+    }
+
+    /**
+     * Gets an estimate of the heap retained by the cached stores of each locale.
+     * <p>
+     * Stores shared between locales with the same texts are counted for each of them,
+     * so the total may exceed the memory actually used.
+     *
+     * @return the estimated bytes by locale, unmodifiable, not null
+     */
+    public Map<Locale, Long> getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder("ProviderStatistics{");
+        for (Map.Entry<TemporalField, long[]> entry : counts.entrySet()) {
+            buf.append(entry.getKey()).append("=").append(entry.getValue()[0])
+                    .append("/").append(entry.getValue()[1]).append(", ");
+        }
+        buf.append("unsupported=").append(unsupportedLookups);
+        buf.append(", evictions=").append(evictionCount);
+        buf.append(", stores=").append(storeCounts);
+        return buf.append("}").toString();
+    }
+
+    //-----------------------------------------------------------------------
+
+    /**
+     * Collects the values of a snapshot.
+     */
+    static final class Builder {
+        private final Map<TemporalField, long[]> counts = new LinkedHashMap<TemporalField, long[]>();
+        private final Map<TemporalField, long[]> creationTimes = new HashMap<TemporalField, long[]>();
+        private final Map<Locale, Integer> storeCounts = new HashMap<Locale, Integer>();
+        private final Map<Locale, Long> retainedBytes = new HashMap<Locale, Long>();
+        private long unsupportedLookups;
+        private long evictionCount;
+
+        Builder field(TemporalField field, long hits, long misses, long[] histogram) {
+            counts.put(field, new long[] {hits, misses});
+            creationTimes.put(field, histogram);
+            return this;
+        }
+
+        Builder unsupportedLookups(long count) {
+            this.unsupportedLookups = count;
+            return this;
+        }
+
+        Builder evictionCount(long count) {
+            this.evictionCount = count;
+            return this;
+        }
+
+        Builder store(Locale locale, long bytes) {
+            Integer count = storeCounts.get(locale);
+            storeCounts.put(locale, count != null ? count + 1 : 1);
+            Long total = retainedBytes.get(locale);
+            retainedBytes.put(locale, total != null ? total + bytes : bytes);
+            return this;
+        }
+
+        ProviderStatistics build() {
+            return new ProviderStatistics(this);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * Shares a {@link LocaleTextExtractor} between the stores of a locale, without keeping its platform data alive.
+ * <p>
+ * The extractor holds {@code DateFormatSymbols}, a {@code SimpleDateFormat} and its calendar.
+ * It is held strongly until {@link #release()}, called once the miss building the stores of the locale
+ * has finished, so that they all extract from the same platform data. Afterwards it is only held weakly:
+ * lazy stores loading a style later reuse it while it is still around, and otherwise create it again,
+ * but cached stores never keep it alive.
+ * <p>
+ * This class is thread-safe. Extractions are serialized, as the extractor is not thread-safe.
+ */
+final class SharedExtractor {
+
+    /** The locale to extract. */
+    private final Locale locale;
+    /** The tracer of each extraction. */
+    private final Tracer tracer;
+    /** The extractor, null until first used and once released. */
+    private LocaleTextExtractor extractor;
+    /** The extractor once released, null until then. */
+    private WeakReference<LocaleTextExtractor> releasedExtractor;
+    /** Whether any platform data has been loaded yet. */
+    private boolean started;
+
+    /**
+     * Constructor.
+     *
+     * @param locale the locale to extract, not null
+     * @param tracer the tracer, not null
+     */
+    SharedExtractor(Locale locale, Tracer tracer) {
+        this.locale = locale;
+        this.tracer = tracer;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Extracts the texts of all styles of a field.
+     *
+     * @param field the field, not null
+     * @return the texts indexed by style ordinal and value offset, null if the field has no text
+     * @see LocaleTextExtractor#extract(TemporalField)
+     */
+    synchronized String[][] extract(TemporalField field) {
+        LocaleTextExtractor extractor = get();
+        try {
+            return extractor.extract(field);
+        } finally {
+            started |= extractor.isStarted();
+        }
+    }
+
+    /**
+     * Extracts the texts of a single style of a field.
+     *
+     * @param field the field, not null
+     * @param style the style, not null
+     * @return the texts indexed by value offset, null if the field has no text in the style
+     * @see LocaleTextExtractor#extract(TemporalField, TextStyle)
+     */
+    synchronized String[] extract(TemporalField field, TextStyle style) {
+        LocaleTextExtractor extractor = get();
+        try {
+            return extractor.extract(field, style);
+        } finally {
+            started |= extractor.isStarted();
+        }
+    }
+
+    /**
+     * Checks whether any platform data has been loaded yet, even if released since.
+     *
+     * @return true if symbols or a date format were created
+     */
+    synchronized boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Stops holding the extractor strongly, so that its platform data can be garbage collected.
+     */
+    synchronized void release() {
+        if (extractor != null) {
+            releasedExtractor = new WeakReference<LocaleTextExtractor>(extractor);
+            extractor = null;
+        } else if (releasedExtractor == null) {
+            releasedExtractor = new WeakReference<LocaleTextExtractor>(null);
+        }
+    }
+
+    /**
+     * Gets the extractor currently held, strongly or weakly.
+     *
+     * @return the extractor, null if none was created or it was garbage collected
+     */
+    synchronized LocaleTextExtractor peek() {
+        return extractor != null ? extractor : releasedExtractor != null ? releasedExtractor.get() : null;
+    }
+
+    //-----------------------------------------------------------------------
+    private LocaleTextExtractor get() {
+        LocaleTextExtractor result = peek();
+        if (result == null) {
+            result = new LocaleTextExtractor(locale, tracer);
+            if (releasedExtractor != null) {
+                releasedExtractor = new WeakReference<LocaleTextExtractor>(result);
+            } else {
+                extractor = result;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,20 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Locale;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * Serves the tables generated at build time for the locales of the {@code textTableLocales} Gradle property.
+ * <p>
+ * The tables are keyed by the locales the declared ones resolve to, which are the locales
+ * the provider looks texts up with, and follow the same rules per field as extracted texts.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+final class StaticTableTextSource implements TextSource {
+
+    @Override
+    public String[][] getTexts(TemporalField field, Locale locale) {
+        return StaticTextTables.get(field, locale);
+    }
+}
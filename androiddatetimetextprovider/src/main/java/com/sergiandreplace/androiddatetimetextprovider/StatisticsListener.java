@@ -0,0 +1,30 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Locale;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * Listener notified of the work done by an {@link AndroidDateTimeTextProvider}, for example to forward it to telemetry.
+ * <p>
+ * Methods are called on the thread doing the work, which may be the main thread,
+ * so implementations must be thread-safe and return quickly.
+ */
+public interface StatisticsListener {
+
+    /**
+     * Called when the texts of a field and locale have been built and cached.
+     *
+     * @param field the field, not null
+     * @param locale the locale, not null
+     * @param durationNanos the time taken to build the texts, in nanoseconds
+     */
+    void onStoreCreated(TemporalField field, Locale locale, long durationNanos);
+
+    /**
+     * Called when the texts of a field and locale have been evicted from the cache.
+     *
+     * @param field the field, not null
+     * @param locale the locale, not null
+     */
+    void onStoreEvicted(TemporalField field, Locale locale);
+}
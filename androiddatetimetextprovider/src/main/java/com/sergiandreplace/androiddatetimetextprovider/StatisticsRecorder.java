@@ -0,0 +1,98 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * Records the statistics of a provider, when enabled.
+ * <p>
+ * This class is thread-safe.
+ */
+final class StatisticsRecorder {
+
+    /** The fields, indexed as the counters. */
+    private final TemporalField[] fields;
+    /** Cache hits per field. */
+    private final AtomicLongArray hits;
+    /** Cache misses per field. */
+    private final AtomicLongArray misses;
+    /** Creation time histogram per field, {@link ProviderStatistics#BUCKET_COUNT} buckets each. */
+    private final AtomicLongArray creationTimes;
+    /** Lookups of fields without text. */
+    private final AtomicLong unsupportedLookups = new AtomicLong();
+    /** The listener, null if none. */
+    private final StatisticsListener listener;
+
+    /**
+     * Constructor.
+     *
+     * @param fields the supported fields, indexed as in the provider, not null
+     * @param listener the listener to notify, null if none
+     */
+    StatisticsRecorder(TemporalField[] fields, StatisticsListener listener) {
+        this.fields = fields;
+        this.listener = listener;
+        hits = new AtomicLongArray(fields.length);
+        misses = new AtomicLongArray(fields.length);
+        creationTimes = new AtomicLongArray(fields.length * ProviderStatistics.BUCKET_COUNT);
+    }
+
+    //-----------------------------------------------------------------------
+    void recordHit(int fieldIndex) {
+        hits.incrementAndGet(fieldIndex);
+    }
+
+    void recordMiss(int fieldIndex) {
+        misses.incrementAndGet(fieldIndex);
+    }
+
+    void recordUnsupported() {
+        unsupportedLookups.incrementAndGet();
+    }
+
+    void recordCreation(int fieldIndex, Locale locale, long durationNanos) {
+        creationTimes.incrementAndGet(fieldIndex * ProviderStatistics.BUCKET_COUNT + bucket(durationNanos));
+        if (listener != null) {
+            listener.onStoreCreated(fields[fieldIndex], locale, durationNanos);
+        }
+    }
+
+    /**
+     * Records the extraction of a style by a lazy store, in the creation times only,
+     * as no store is created.
+     */
+    void recordLoad(int fieldIndex, long durationNanos) {
+        creationTimes.incrementAndGet(fieldIndex * ProviderStatistics.BUCKET_COUNT + bucket(durationNanos));
+    }
+
+    void recordEviction(int fieldIndex, Locale locale) {
+        if (listener != null) {
+            listener.onStoreEvicted(fields[fieldIndex], locale);
+        }
+    }
+
+    /**
+     * Gets the counters recorded so far.
+     *
+     * @param builder the statistics being built, not null
+     */
+    void fill(ProviderStatistics.Builder builder) {
+        for (int i = 0; i < fields.length; i++) {
+            long[] histogram = new long[ProviderStatistics.BUCKET_COUNT];
+            for (int j = 0; j < histogram.length; j++) {
+                histogram[j] = creationTimes.get(i * ProviderStatistics.BUCKET_COUNT + j);
+            }
+            builder.field(fields[i], hits.get(i), misses.get(i), histogram);
+        }
+        builder.unsupportedLookups(unsupportedLookups.get());
+    }
+
+    //-----------------------------------------------------------------------
+    private static int bucket(long durationNanos) {
+        long micros = durationNanos / 1000;
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);  // 0 for under 1us, then one per power of two
+        return Math.min(bucket, ProviderStatistics.BUCKET_COUNT - 1);
+    }
+}
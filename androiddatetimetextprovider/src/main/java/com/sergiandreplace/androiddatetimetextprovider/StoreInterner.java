@@ -0,0 +1,122 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import com.sergiandreplace.androiddatetimetextprovider.AndroidDateTimeTextProvider.LocaleStore;
+import java.util.Arrays;
+
+/**
+ * Shares texts, style tables and stores with equal contents.
+ * <p>
+ * Many locales have the same texts, such as the English variants for months,
+ * and many styles have the same texts within a locale, such as FULL and FULL_STANDALONE.
+ * Interning keeps a single instance of each string, of each table of a style,
+ * and of each store, however many locales and styles refer to it.
+ * Instances are only kept while some store uses them, so evicted stores are not retained.
+ * <p>
+ * Whole stores are only shared when they are created with all their texts, as eager stores,
+ * from a text source or from a snapshot. The default lazy stores load each style on first use,
+ * so they are never shared as a whole, but the tables and texts of the styles they load are.
+ * Compact stores share their packed texts instead.
+ * <p>
+ * This class is thread-safe.
+ */
+final class StoreInterner {
+
+    /** Interned texts. */
+    private final WeakInterner<String> texts = new WeakInterner<String>();
+    /** Interned style tables, compared by contents. */
+    private final WeakInterner<String[]> tables = new WeakInterner<String[]>() {
+        @Override
+        int hash(String[] table) {
+            return Arrays.hashCode(table);
+        }
+
+        @Override
+        boolean equal(String[] table1, String[] table2) {
+            return Arrays.equals(table1, table2);
+        }
+    };
+    /** Interned stores, compared by their interned tables. */
+    private final WeakInterner<LocaleStore> stores = new WeakInterner<LocaleStore>() {
+        @Override
+        int hash(LocaleStore store) {
+            return store.tablesHashCode();
+        }
+
+        @Override
+        boolean equal(LocaleStore store1, LocaleStore store2) {
+            return store1.hasSameTables(store2);
+        }
+    };
+    /** Interned packed texts. */
+    private final WeakInterner<PackedTexts> packedTexts = new WeakInterner<PackedTexts>();
+
+    //-----------------------------------------------------------------------
+
+    /**
+     * Gets the store for the given texts, sharing an existing one with equal contents if possible.
+     *
+     * @param styleTexts the texts indexed by style ordinal and value offset, not altered, not null
+     * @param minValue the field value of the first text of each style
+     * @return the store, not null
+     */
+    LocaleStore intern(String[][] styleTexts, int minValue) {
+        String[][] interned = new String[styleTexts.length][];
+        for (int i = 0; i < styleTexts.length; i++) {
+            if (styleTexts[i] != null) {
+                interned[i] = internTable(styleTexts[i]);
+            }
+        }
+        return stores.intern(new LocaleStore(interned, minValue));
+    }
+
+    /**
+     * Gets packed texts, sharing existing ones with equal contents if possible.
+     *
+     * @param packed the packed texts, not null
+     * @return the shared packed texts, not null
+     */
+    PackedTexts intern(PackedTexts packed) {
+        return packedTexts.intern(packed);
+    }
+
+    /**
+     * Counts the interned texts, tables and stores still in use.
+     *
+     * @return the number of instances
+     */
+    int size() {
+        return texts.size() + tables.size() + stores.size() + packedTexts.size();
+    }
+
+    /**
+     * Forgets all interned instances, for example when memory is low.
+     * <p>
+     * Instances in use stay valid, they are just no longer shared with stores created later.
+     * Instances no longer in use are forgotten anyway, once garbage collected.
+     */
+    void clear() {
+        stores.clear();
+        packedTexts.clear();
+        tables.clear();
+        texts.clear();
+    }
+
+    /**
+     * Gets the table of a single style, sharing an existing one with equal contents if possible.
+     *
+     * @param table the texts indexed by value offset, not altered, not null
+     * @return the table, not null
+     */
+    String[] internTable(String[] table) {
+        String[] copy = new String[table.length];
+        for (int i = 0; i < table.length; i++) {
+            copy[i] = internText(table[i]);
+        }
+        return tables.intern(copy);
+    }
+
+    //-----------------------------------------------------------------------
+    private String internText(String text) {
+        return texts.intern(text);
+    }
+}
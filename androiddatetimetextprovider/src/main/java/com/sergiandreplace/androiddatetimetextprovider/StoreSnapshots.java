@@ -0,0 +1,247 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * Persists the texts of locale stores as binary snapshot files, one per field and locale.
+ * <p>
+ * Every snapshot records the fingerprint of the platform data it was extracted from.
+ * A snapshot with a different fingerprint is stale: it is ignored when loading
+ * and replaced by the next save.
+ * <p>
+ * The file layout is, with all numbers big-endian:
+ * <ul>
+ * <li>magic and format version, as two ints</li>
+ * <li>fingerprint and locale, as strings</li>
+ * <li>the number of styles, as an int</li>
+ * <li>for every style in ordinal order, the number of texts as an int followed by the texts,
+ * or -1 if the style has no texts, or -2 - ordinal if it shares the texts of an earlier style</li>
+ * </ul>
+ * Strings are written as a char count followed by UTF-16 chars.
+ * <p>
+ * Snapshots are written on an executor, so that the thread missing the cache,
+ * possibly the main thread, does not wait for the disk.
+ * <p>
+ * This class is thread-safe. Snapshots are written to a temporary file and renamed,
+ * so readers never observe a partial file.
+ */
+final class StoreSnapshots {
+
+    /** Magic number at the start of every snapshot. */
+    private static final int MAGIC = 0x41445454;
+    /** Version of the layout, to be increased whenever the layout or the extraction changes. */
+    private static final int VERSION = 2;
+
+    /** The directory holding the snapshots. */
+    private final File directory;
+    /** The fingerprint of the current platform data. */
+    private final String fingerprint;
+    /** The executor writing the snapshots. */
+    private final Executor writer;
+
+    /**
+     * Constructor.
+     *
+     * @param directory the directory holding the snapshots, created if needed, not null
+     * @param fingerprint the fingerprint of the current platform data, not null
+     * @param writer the executor writing the snapshots, null to write them on a thread of their own
+     */
+    StoreSnapshots(File directory, String fingerprint, Executor writer) {
+        this.directory = directory;
+        this.fingerprint = fingerprint;
+        this.writer = writer != null ? writer : createWriter();
+    }
+
+    /**
+     * Creates a single background thread, stopped when idle so that it costs nothing once the locales are saved.
+     */
+    private static Executor createWriter() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "DateTimeTextProvider snapshots");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    //-----------------------------------------------------------------------
+
+    /**
+     * Loads the texts of a field and locale.
+     *
+     * @param field the field, not null
+     * @param locale the locale, not null
+     * @return the texts indexed by style ordinal and value offset, null if there is no valid snapshot
+     */
+    String[][] load(TemporalField field, Locale locale) {
+        File file = file(field, locale);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            RandomAccessFile input = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = input.getChannel();
+                return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), locale);
+            } finally {
+                input.close();
+            }
+        } catch (IOException ex) {
+            return null;  // a snapshot is only a cache, extract again
+        } catch (RuntimeException ex) {
+            return null;  // truncated or corrupt file
+        }
+    }
+
+    /**
+     * Saves the texts of a field and locale on the writer, replacing any previous snapshot.
+     *
+     * @param field the field, not null
+     * @param locale the locale, not null
+     * @param styleTexts the texts indexed by style ordinal and value offset, not null
+     */
+    void save(final TemporalField field, final Locale locale, String[][] styleTexts) {
+        final String[][] texts = styleTexts.clone();  // the caller may fill in more styles meanwhile
+        try {
+            writer.execute(new Runnable() {
+                @Override
+                public void run() {
+                    write(field, locale, texts);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // a snapshot is only a cache, try again next time
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    private void write(TemporalField field, Locale locale, String[][] styleTexts) {
+        File file = file(field, locale);
+        File temp = null;
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                return;
+            }
+            temp = File.createTempFile(file.getName(), ".tmp", directory);
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                write(output, styleTexts, locale);
+            } finally {
+                output.close();
+            }
+            if (temp.renameTo(file)) {
+                temp = null;
+            }
+        } catch (IOException ex) {
+            // a snapshot is only a cache, try again next time
+        } finally {
+            if (temp != null) {
+                temp.delete();
+            }
+        }
+    }
+
+    private File file(TemporalField field, Locale locale) {
+        String name = field + "-" + locale;
+        return new File(directory, name.replaceAll("[^A-Za-z0-9_-]", "_") + ".bin");
+    }
+
+    private void write(DataOutputStream output, String[][] styleTexts, Locale locale) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        writeString(output, fingerprint);
+        writeString(output, locale.toString());
+        output.writeInt(styleTexts.length);
+        for (int i = 0; i < styleTexts.length; i++) {
+            String[] texts = styleTexts[i];
+            int shared = indexOf(styleTexts, texts, i);
+            if (texts == null) {
+                output.writeInt(-1);
+            } else if (shared >= 0) {
+                output.writeInt(-2 - shared);
+            } else {
+                output.writeInt(texts.length);
+                for (String text : texts) {
+                    writeString(output, text);
+                }
+            }
+        }
+    }
+
+    private String[][] read(ByteBuffer buffer, Locale locale) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                || !readString(buffer).equals(fingerprint) || !readString(buffer).equals(locale.toString())) {
+            return null;
+        }
+        if (buffer.getInt() != TextStyle.values().length) {
+            return null;
+        }
+        String[][] styleTexts = new String[TextStyle.values().length][];
+        for (int i = 0; i < styleTexts.length; i++) {
+            int count = buffer.getInt();
+            if (count <= -2) {
+                if (-2 - count >= i) {
+                    return null;  // only earlier styles can be shared
+                }
+                styleTexts[i] = styleTexts[-2 - count];
+            } else if (count >= 0) {
+                if (count > buffer.remaining() / 4) {
+                    return null;  // corrupt, every text takes at least four bytes
+                }
+                String[] texts = new String[count];
+                for (int j = 0; j < count; j++) {
+                    texts[j] = readString(buffer);
+                }
+                styleTexts[i] = texts;
+            }
+        }
+        return styleTexts;
+    }
+
+    private static int indexOf(String[][] styleTexts, String[] texts, int end) {
+        for (int i = 0; i < end; i++) {
+            if (styleTexts[i] == texts) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void writeString(DataOutputStream output, String text) throws IOException {
+        output.writeInt(text.length());
+        output.writeChars(text);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining() / 2) {
+            throw new IllegalArgumentException("Corrupt snapshot");  // rather than allocating a huge array
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = buffer.getChar();
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,232 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal perfect hash of texts to field values, used to look up a whole text exactly.
+ * <p>
+ * Texts are first hashed into buckets of about two texts, and each bucket has a seed,
+ * searched when the index is built, that hashes its texts into free slots of a table
+ * with exactly one slot per text. A lookup hashes the input once, reads the seed of
+ * its bucket, and compares the input with the single text in its slot, so it takes
+ * constant time whatever the number of texts, and allocates nothing.
+ * <p>
+ * In the rare case no seeds are found, the table gets a few more slots than texts,
+ * and then the texts are hashed with another salt.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+final class TextIndex {
+
+    /** Value marker for lookups matching no text. */
+    static final int NO_VALUE = -1;
+
+    /** Number of seeds tried for a bucket before giving the table more slots. */
+    private static final int MAX_SEED = 1 << 12;
+    /** Odd constant spreading seeds over the hash, from the golden ratio. */
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    /** Salt of the hash of all texts. */
+    private final long salt;
+    /** Seed of each bucket. */
+    private final int[] seeds;
+    /** Text in each slot, null for the empty slots of a table that is not minimal. */
+    private final String[] texts;
+    /** Value of the text in each slot. */
+    private final int[] values;
+
+    private TextIndex(long salt, int[] seeds, String[] texts, int[] values) {
+        this.salt = salt;
+        this.seeds = seeds;
+        this.texts = texts;
+        this.values = values;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Finds the value of a text.
+     *
+     * @param text the text containing the text to look up, not null
+     * @param start the index of the first char to look up
+     * @param end the index after the last char to look up
+     * @return the value, {@link #NO_VALUE} if no text is equal
+     */
+    int get(CharSequence text, int start, int end) {
+        long hash = hash(text, start, end, salt);
+        int slot = slot(hash, seeds[bucket(hash, seeds.length)], texts.length);
+        String candidate = texts[slot];
+        if (candidate == null || candidate.length() != end - start) {
+            return NO_VALUE;
+        }
+        for (int i = 0; i < candidate.length(); i++) {
+            if (candidate.charAt(i) != text.charAt(start + i)) {
+                return NO_VALUE;
+            }
+        }
+        return values[slot];
+    }
+
+    /**
+     * Estimates the heap retained by this index, with the object sizes of a 32-bit runtime.
+     * The texts are not counted, as they belong to the store.
+     *
+     * @return the estimated number of bytes
+     */
+    long estimateRetainedBytes() {
+        return 32 + 3 * 16 + 4L * (seeds.length + texts.length + values.length);
+    }
+
+    //-----------------------------------------------------------------------
+    private static long hash(CharSequence text, int start, int end, long salt) {
+        long hash = 0xCBF29CE484222325L + salt * SEED_STEP;  // 64-bit FNV-1a
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static int bucket(long hash, int bucketCount) {
+        return reduce(hash, bucketCount);
+    }
+
+    private static int slot(long hash, int seed, int slotCount) {
+        long mixed = hash + seed * SEED_STEP;  // seed zero keeps the plain hash
+        mixed = (mixed ^ (mixed >>> 33)) * 0xFF51AFD7ED558CCDL;  // MurmurHash3 finalizer
+        mixed = (mixed ^ (mixed >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        mixed ^= mixed >>> 33;
+        return reduce(mixed, slotCount);
+    }
+
+    /**
+     * Maps the high 32 bits of a hash to a range, with a multiplication instead of a much slower division.
+     */
+    private static int reduce(long hash, int range) {
+        return (int) (((hash >>> 32) * range) >>> 32);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Collects texts and builds an index of them.
+     * <p>
+     * When the same text is added twice, the value added first is kept, as in {@link TextTrie.Builder}.
+     */
+    static final class Builder {
+        private final Map<String, Integer> entries = new LinkedHashMap<String, Integer>();
+
+        /**
+         * Adds a text, ignoring empty and duplicate texts.
+         *
+         * @param text the text, not null
+         * @param value the non-negative value of the text
+         * @return this, for chaining
+         */
+        Builder add(String text, int value) {
+            if (text.length() > 0 && !entries.containsKey(text)) {
+                entries.put(text, value);
+            }
+            return this;
+        }
+
+        /**
+         * Builds the index of the added texts.
+         *
+         * @return the index, not null
+         */
+        TextIndex build() {
+            int count = entries.size();
+            String[] keys = entries.keySet().toArray(new String[count]);
+            long[] hashes = new long[count];
+            int bucketCount = Math.max(1, (count + 1) / 2);
+            for (long salt = 0; ; salt++) {
+                for (int i = 0; i < count; i++) {
+                    hashes[i] = hash(keys[i], 0, keys[i].length(), salt);
+                }
+                for (int slotCount = Math.max(1, count); slotCount <= count + count / 8 + 1; slotCount++) {
+                    TextIndex index = build(keys, hashes, salt, bucketCount, slotCount);
+                    if (index != null) {
+                        return index;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Searches the seeds of all buckets, the fullest buckets first while most slots are free.
+         *
+         * @return the index, null if a bucket has no seed for this number of slots
+         */
+        private TextIndex build(String[] keys, long[] hashes, long salt, int bucketCount, int slotCount) {
+            final List<List<Integer>> buckets = new ArrayList<List<Integer>>(bucketCount);
+            for (int i = 0; i < bucketCount; i++) {
+                buckets.add(new ArrayList<Integer>());
+            }
+            for (int i = 0; i < keys.length; i++) {
+                buckets.get(bucket(hashes[i], bucketCount)).add(i);
+            }
+            Integer[] order = new Integer[bucketCount];
+            for (int i = 0; i < bucketCount; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer bucket1, Integer bucket2) {
+                    return buckets.get(bucket2).size() - buckets.get(bucket1).size();
+                }
+            });
+
+            int[] seeds = new int[bucketCount];
+            String[] texts = new String[slotCount];
+            int[] values = new int[slotCount];
+            int[] slots = new int[keys.length];
+            for (int bucket : order) {
+                List<Integer> members = buckets.get(bucket);
+                if (members.isEmpty()) {
+                    break;  // the rest are empty too
+                }
+                int seed = findSeed(members, hashes, texts, slots, slotCount);
+                if (seed < 0) {
+                    return null;
+                }
+                seeds[bucket] = seed;
+                for (int i = 0; i < members.size(); i++) {
+                    int key = members.get(i);
+                    texts[slots[i]] = keys[key];
+                    values[slots[i]] = entries.get(keys[key]);
+                }
+            }
+            return new TextIndex(salt, seeds, texts, values);
+        }
+
+        /**
+         * Finds a seed hashing all texts of a bucket into distinct free slots.
+         *
+         * @param slots receives the slot of each text of the bucket
+         * @return the seed, negative if there is none
+         */
+        private static int findSeed(List<Integer> members, long[] hashes, String[] texts, int[] slots,
+                int slotCount) {
+            seeds:
+            for (int seed = 0; seed < MAX_SEED; seed++) {
+                for (int i = 0; i < members.size(); i++) {
+                    int slot = slot(hashes[members.get(i)], seed, slotCount);
+                    if (texts[slot] != null) {
+                        continue seeds;
+                    }
+                    for (int j = 0; j < i; j++) {
+                        if (slots[j] == slot) {
+                            continue seeds;
+                        }
+                    }
+                    slots[i] = slot;
+                }
+                return seed;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.text.Normalizer;
+
+/**
+ * How strictly input is matched against the texts of a field when parsing.
+ * <p>
+ * Folding is done character by character, so a match always covers as many input characters
+ * as it consumed, but foldings that change the length of a text, such as German sharp s
+ * to double s, are not applied.
+ *
+ * @see AndroidDateTimeTextProvider#parseText(org.threeten.bp.temporal.TemporalField, CharSequence,
+ * java.text.ParsePosition, org.threeten.bp.format.TextStyle, java.util.Locale, TextMatching)
+ */
+public enum TextMatching {
+
+    /**
+     * Characters must be equal, as {@code DateTimeFormatterBuilder.parseCaseSensitive()}.
+     */
+    EXACT,
+    /**
+     * Characters must be equal ignoring case, as {@code DateTimeFormatterBuilder.parseCaseInsensitive()}.
+     * <p>
+     * Every case variant of a letter matches, including the dotted and dotless i of Turkish.
+     */
+    CASE_INSENSITIVE,
+    /**
+     * Characters must be equal ignoring case and accents, for user input.
+     * <p>
+     * Accented letters match their base letter, whether precomposed or followed by combining marks.
+     */
+    LENIENT;
+
+    /** The base letter of each character below {@link #BASE_LIMIT}, zero until computed. */
+    private static final char[] BASES = new char[0x2000];
+    /** Characters from this one on are their own base letter. */
+    private static final int BASE_LIMIT = BASES.length;
+
+    //-----------------------------------------------------------------------
+
+    /**
+     * Folds a text so that it can be compared character by character.
+     *
+     * @param text the text, not null
+     * @return the folded text, not null
+     */
+    String fold(String text) {
+        if (this == EXACT) {
+            return text;
+        }
+        StringBuilder buf = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!isIgnorable(c)) {
+                buf.append(fold(c));
+            }
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Folds a single character.
+     *
+     * @param c the character
+     * @return the folded character
+     */
+    char fold(char c) {
+        if (this == LENIENT && c >= 0x80 && c < BASE_LIMIT) {
+            c = base(c);
+        }
+        return this == EXACT ? c : Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Checks whether a character is skipped when matching, as combining accents are in lenient mode.
+     *
+     * @param c the character
+     * @return true if the character is ignored
+     */
+    boolean isIgnorable(char c) {
+        return this == LENIENT && c >= 0x300 && Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    private static char base(char c) {
+        char base = BASES[c];
+        if (base == 0) {
+            // races only compute the same value twice
+            base = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0);
+            BASES[c] = base;
+        }
+        return base;
+    }
+}
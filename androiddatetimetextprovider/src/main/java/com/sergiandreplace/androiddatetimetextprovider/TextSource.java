@@ -0,0 +1,30 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Locale;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * A source of the texts of a field in a locale, consulted by {@link AndroidDateTimeTextProvider}
+ * before extracting the texts from {@link java.text.SimpleDateFormat}.
+ * <p>
+ * Sources are asked in turn until one has texts for the field and locale,
+ * so a source only needs to know the fields and locales it is good at.
+ * <p>
+ * Implementations must be thread-safe.
+ */
+public interface TextSource {
+
+    /**
+     * Gets the texts of a field in a locale.
+     * <p>
+     * The result is indexed by {@link org.threeten.bp.format.TextStyle#ordinal()},
+     * then by the field value minus its minimum value, as 1 for MONTH_OF_YEAR.
+     * Styles without texts are null; missing standalone styles fall back to the format style.
+     * The provider takes ownership of the returned array and may alter it.
+     *
+     * @param field the field, not null
+     * @param locale the locale, not null
+     * @return the texts indexed by style ordinal and value offset, null if this source has none
+     */
+    String[][] getTexts(TemporalField field, Locale locale);
+}
@@ -0,0 +1,240 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A prefix trie of texts to field values, used to parse a text in a single pass.
+ * <p>
+ * The trie is flattened into arrays: the children of every node are stored as a
+ * contiguous run of edges sorted by character, so matching does a binary search
+ * per input character and allocates nothing.
+ * <p>
+ * Texts are folded as specified by a {@link TextMatching} when the trie is built,
+ * and input characters the same way while matching.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+final class TextTrie {
+
+    /** Value marker for nodes where no text ends. */
+    private static final int NO_VALUE = -1;
+
+    /** Index of the first edge of each node, with one extra element closing the last run. */
+    private final int[] firstEdge;
+    /** Value of the text ending at each node, or {@link #NO_VALUE}. */
+    private final int[] nodeValues;
+    /** Character of each edge, sorted within the run of a node. */
+    private final char[] edgeChars;
+    /** Target node of each edge. */
+    private final int[] edgeTargets;
+    /** How texts and input are folded. */
+    private final TextMatching matching;
+
+    private TextTrie(int[] firstEdge, int[] nodeValues, char[] edgeChars, int[] edgeTargets,
+            TextMatching matching) {
+        this.matching = matching;
+        this.firstEdge = firstEdge;
+        this.nodeValues = nodeValues;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+    }
+
+    //-----------------------------------------------------------------------
+
+    /**
+     * Finds the longest text of this trie at the given position.
+     *
+     * @param text the text to match against, not null
+     * @param position the position to start matching at
+     * @return the length of the match in the upper 32 bits and its value in the lower 32 bits,
+     * negative if no text matches
+     */
+    long match(CharSequence text, int position) {
+        if (matching != TextMatching.EXACT) {
+            return matchFolded(text, position);
+        }
+        long result = -1;
+        int node = 0;
+        int length = text.length();
+        for (int i = position; i < length; i++) {
+            node = child(node, text.charAt(i));
+            if (node < 0) {
+                break;
+            }
+            if (nodeValues[node] != NO_VALUE) {
+                result = ((long) (i + 1 - position) << 32) | nodeValues[node];
+            }
+        }
+        return result;
+    }
+
+    private long matchFolded(CharSequence text, int position) {
+        long result = -1;
+        int node = 0;
+        int length = text.length();
+        for (int i = position; i < length; i++) {
+            char c = text.charAt(i);
+            if (matching.isIgnorable(c)) {
+                if (node != 0 && nodeValues[node] != NO_VALUE) {
+                    result = ((long) (i + 1 - position) << 32) | nodeValues[node];  // accent of the last letter
+                }
+                continue;
+            }
+            node = child(node, matching.fold(c));
+            if (node < 0) {
+                break;
+            }
+            if (nodeValues[node] != NO_VALUE) {
+                result = ((long) (i + 1 - position) << 32) | nodeValues[node];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the heap retained by this trie, with the object sizes of a 32-bit runtime.
+     *
+     * @return the estimated number of bytes
+     */
+    long estimateRetainedBytes() {
+        return 16 + 4 * 16 + 4L * (firstEdge.length + nodeValues.length + edgeTargets.length) + 2L * edgeChars.length;
+    }
+
+    private int child(int node, char c) {
+        int low = firstEdge[node];
+        int high = firstEdge[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = edgeChars[mid];
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    //-----------------------------------------------------------------------
+
+    /**
+     * Builds a trie node by node before it is flattened.
+     * <p>
+     * When the same text is added twice, the value added first is kept.
+     */
+    static final class Builder {
+        private final List<BuilderNode> nodes = new ArrayList<BuilderNode>();
+        private final TextMatching matching;
+
+        /**
+         * Creates a builder of a trie matching texts exactly.
+         */
+        Builder() {
+            this(TextMatching.EXACT);
+        }
+
+        /**
+         * Creates a builder.
+         *
+         * @param matching how texts and input are folded, not null
+         */
+        Builder(TextMatching matching) {
+            this.matching = matching;
+            nodes.add(new BuilderNode());
+        }
+
+        /**
+         * Adds a text, folded as the trie matches, ignoring empty and duplicate texts.
+         *
+         * @param text the text, not null
+         * @param value the non-negative value of the text
+         * @return this, for chaining
+         */
+        Builder add(String text, int value) {
+            text = matching.fold(text);
+            if (text.length() == 0) {
+                return this;
+            }
+            BuilderNode node = nodes.get(0);
+            for (int i = 0; i < text.length(); i++) {
+                node = node.child(text.charAt(i), nodes);
+            }
+            if (node.value == NO_VALUE) {
+                node.value = value;
+            }
+            return this;
+        }
+
+        /**
+         * Flattens the added texts into an immutable trie.
+         *
+         * @return the trie, not null
+         */
+        TextTrie build() {
+            int nodeCount = nodes.size();
+            int[] firstEdge = new int[nodeCount + 1];
+            int[] nodeValues = new int[nodeCount];
+            char[] edgeChars = new char[nodeCount - 1];
+            int[] edgeTargets = new int[nodeCount - 1];
+            int edge = 0;
+            for (int i = 0; i < nodeCount; i++) {
+                BuilderNode node = nodes.get(i);
+                firstEdge[i] = edge;
+                nodeValues[i] = node.value;
+                for (int j = 0; j < node.childCount; j++) {
+                    edgeChars[edge] = node.childChars[j];
+                    edgeTargets[edge] = node.childIndexes[j];
+                    edge++;
+                }
+            }
+            firstEdge[nodeCount] = edge;
+            return new TextTrie(firstEdge, nodeValues, edgeChars, edgeTargets, matching);
+        }
+    }
+
+    /**
+     * A mutable node, whose children are kept sorted by character.
+     */
+    private static final class BuilderNode {
+        int value = NO_VALUE;
+        char[] childChars = new char[2];
+        int[] childIndexes = new int[2];
+        BuilderNode[] children = new BuilderNode[2];
+        int childCount;
+
+        BuilderNode child(char c, List<BuilderNode> nodes) {
+            int insert = 0;
+            while (insert < childCount && childChars[insert] < c) {
+                insert++;
+            }
+            if (insert < childCount && childChars[insert] == c) {
+                return children[insert];
+            }
+            if (childCount == childChars.length) {
+                int capacity = childCount * 2;
+                char[] newChars = new char[capacity];
+                int[] newIndexes = new int[capacity];
+                BuilderNode[] newChildren = new BuilderNode[capacity];
+                System.arraycopy(childChars, 0, newChars, 0, childCount);
+                System.arraycopy(childIndexes, 0, newIndexes, 0, childCount);
+                System.arraycopy(children, 0, newChildren, 0, childCount);
+                childChars = newChars;
+                childIndexes = newIndexes;
+                children = newChildren;
+            }
+            System.arraycopy(childChars, insert, childChars, insert + 1, childCount - insert);
+            System.arraycopy(childIndexes, insert, childIndexes, insert + 1, childCount - insert);
+            System.arraycopy(children, insert, children, insert + 1, childCount - insert);
+            BuilderNode child = new BuilderNode();
+            childChars[insert] = c;
+            childIndexes[insert] = nodes.size();
+            children[insert] = child;
+            childCount++;
+            nodes.add(child);
+            return child;
+        }
+    }
+}
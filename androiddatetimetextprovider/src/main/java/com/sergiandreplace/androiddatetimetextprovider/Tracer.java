@@ -0,0 +1,139 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import android.os.Build;
+import android.os.Trace;
+import java.util.Locale;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * Marks the slow work of the provider as sections of a system trace.
+ * <p>
+ * Sections are written with {@code android.os.Trace}, available from Android 4.3 (API 18),
+ * and show up in Perfetto and systrace named after the work, the field and the locale,
+ * so that a janky frame can be attributed to the texts it extracted.
+ * The instance returned by {@link #create()} on older versions and on the JVM,
+ * and {@link #NONE}, do nothing and build no section names.
+ * <p>
+ * Sections must be ended on the thread that began them, in reverse order.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+class Tracer {
+
+    /** The tracer doing nothing. */
+    static final Tracer NONE = new Tracer();
+
+    /** Maximum length of a section name accepted by {@code android.os.Trace}. */
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+
+    /**
+     * Constructor of a tracer doing nothing, or of a subclass.
+     */
+    Tracer() {
+    }
+
+    /**
+     * Creates a tracer writing to the system trace, if the runtime has one.
+     *
+     * @return the tracer, {@link #NONE} if there is no system trace, not null
+     */
+    static Tracer create() {
+        if (!"Dalvik".equals(System.getProperty("java.vm.name"))) {
+            return NONE;  // running on the JVM, where android classes may be stand-ins, checked first
+        }
+        if (Build.VERSION.SDK_INT < 18) {
+            return NONE;
+        }
+        return Build.VERSION.SDK_INT >= 29 ? new QueryingTracer() : new PlatformTracer();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks whether sections are written, to skip work only needed for them.
+     *
+     * @return true if sections are written
+     */
+    boolean isEnabled() {
+        return false;
+    }
+
+    /**
+     * Begins a section about a field and locale.
+     *
+     * @param section the name of the work, not null
+     * @param field the field, not null
+     * @param locale the locale, not null
+     */
+    final void beginSection(String section, TemporalField field, Locale locale) {
+        if (isEnabled()) {
+            begin(section + ' ' + field + ' ' + locale);
+        }
+    }
+
+    /**
+     * Begins a section about a field, locale and detail such as a style.
+     *
+     * @param section the name of the work, not null
+     * @param field the field, not null
+     * @param locale the locale, not null
+     * @param detail the detail, not null
+     */
+    final void beginSection(String section, TemporalField field, Locale locale, Object detail) {
+        if (isEnabled()) {
+            begin(section + ' ' + field + ' ' + locale + ' ' + detail);
+        }
+    }
+
+    /**
+     * Ends the section begun last on this thread.
+     */
+    void endSection() {
+    }
+
+    /**
+     * Begins a section, called only when enabled.
+     *
+     * @param name the name of the section, not null
+     */
+    void begin(String name) {
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The tracer writing to {@code android.os.Trace}, always enabled before {@code Trace.isEnabled()} exists.
+     */
+    private static class PlatformTracer extends Tracer {
+
+        @Override
+        boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        void begin(String name) {
+            Trace.beginSection(name.length() <= MAX_SECTION_NAME_LENGTH
+                    ? name : name.substring(0, MAX_SECTION_NAME_LENGTH));
+        }
+
+        @Override
+        void endSection() {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * The tracer writing to {@code android.os.Trace} only while the app is traced, from Android 10 (API 29),
+     * so that no section names are built otherwise.
+     * <p>
+     * Sections are always ended, as tracing may stop between a begin and its end.
+     * The platform writes nothing for ends while not tracing, and trace viewers
+     * ignore an end without its begin, written if tracing starts in between.
+     */
+    private static final class QueryingTracer extends PlatformTracer {
+
+        @Override
+        boolean isEnabled() {
+            return Trace.isEnabled();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Shares instances with equal contents, only as long as they are used elsewhere.
+ * <p>
+ * The interned instances are only referenced weakly, so an instance no longer used
+ * by any store, for example after its stores were evicted, is garbage collected,
+ * and its entry is removed by a later call.
+ * Equality is {@link Object#equals(Object)} unless {@link #hash(Object)} and
+ * {@link #equal(Object, Object)} are overridden.
+ * <p>
+ * This class is thread-safe. Calls are serialized, as interning only happens when stores are created.
+ *
+ * @param <T> the type of the instances
+ */
+class WeakInterner<T> {
+
+    /** Initial number of buckets, a power of two. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Entries whose instance was garbage collected, to be removed. */
+    private final ReferenceQueue<T> queue = new ReferenceQueue<T>();
+    /** Chains of entries by hash, the length being a power of two. */
+    private Entry<T>[] table = newTable(INITIAL_CAPACITY);
+    /** Number of entries, including those of instances collected but not removed yet. */
+    private int size;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets an instance equal to the given one, the given one if there is none yet.
+     *
+     * @param value the instance, not null
+     * @return the shared instance, not null
+     */
+    synchronized T intern(T value) {
+        expunge();
+        int hash = spread(hash(value));
+        int index = hash & (table.length - 1);
+        for (Entry<T> entry = table[index]; entry != null; entry = entry.next) {
+            T existing = entry.get();
+            if (entry.hash == hash && existing != null && equal(existing, value)) {
+                return existing;
+            }
+        }
+        table[index] = new Entry<T>(value, hash, table[index], queue);
+        if (++size > table.length - (table.length >> 2)) {
+            resize();
+        }
+        return value;
+    }
+
+    /**
+     * Counts the interned instances still in use.
+     * <p>
+     * Instances already garbage collected are not counted, even if their entries
+     * are not queued for removal yet.
+     *
+     * @return the number of instances
+     */
+    synchronized int size() {
+        expunge();
+        int count = 0;
+        for (Entry<T> head : table) {
+            for (Entry<T> entry = head; entry != null; entry = entry.next) {
+                if (entry.get() != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Forgets all instances.
+     */
+    synchronized void clear() {
+        table = newTable(INITIAL_CAPACITY);
+        size = 0;
+        while (queue.poll() != null) {
+            // entries of the old table, nothing to remove
+        }
+    }
+
+    /**
+     * Gets the hash code of an instance, consistent with {@link #equal(Object, Object)}.
+     *
+     * @param value the instance, not null
+     * @return the hash code
+     */
+    int hash(T value) {
+        return value.hashCode();
+    }
+
+    /**
+     * Checks whether two instances are equal, and so can be shared.
+     *
+     * @param value1 the first instance, not null
+     * @param value2 the second instance, not null
+     * @return true if equal
+     */
+    boolean equal(T value1, T value2) {
+        return value1.equals(value2);
+    }
+
+    //-----------------------------------------------------------------------
+    private void expunge() {
+        Reference<? extends T> reference;
+        while ((reference = queue.poll()) != null) {
+            @SuppressWarnings("unchecked")
+            Entry<T> removed = (Entry<T>) reference;
+            int index = removed.hash & (table.length - 1);
+            Entry<T> previous = null;
+            for (Entry<T> entry = table[index]; entry != null; previous = entry, entry = entry.next) {
+                if (entry == removed) {
+                    if (previous == null) {
+                        table[index] = entry.next;
+                    } else {
+                        previous.next = entry.next;
+                    }
+                    size--;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void resize() {
+        Entry<T>[] resized = newTable(table.length * 2);
+        for (Entry<T> head : table) {
+            Entry<T> entry = head;
+            while (entry != null) {
+                Entry<T> next = entry.next;
+                int index = entry.hash & (resized.length - 1);
+                entry.next = resized[index];
+                resized[index] = entry;
+                entry = next;
+            }
+        }
+        table = resized;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T>[] newTable(int capacity) {
+        return (Entry<T>[]) new Entry<?>[capacity];
+    }
+
+    /**
+     * Spreads the high bits of a hash code to the low bits used to pick a bucket.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * An interned instance, chained with the others of the same bucket.
+     */
+    private static final class Entry<T> extends WeakReference<T> {
+        final int hash;
+        Entry<T> next;
+
+        Entry(T value, int hash, Entry<T> next, ReferenceQueue<T> queue) {
+            super(value, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.threeten.bp.format.TextStyle;
+
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+/**
+ * Rendering many month names into one builder, as a CSV export does,
+ * one lookup per value against one lookup for all of them.
+ * Run with {@code -prof gc} to compare allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class AppendTextBenchmark {
+
+    private static final int COUNT = 1000;
+
+    private final AndroidDateTimeTextProvider provider = new AndroidDateTimeTextProvider();
+    private final Locale locale = Locale.forLanguageTag("ca-ES");
+    private final long[] values = new long[COUNT];
+    private final StringBuilder buf = new StringBuilder(COUNT * 16);
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = i % 12 + 1;
+        }
+        provider.getText(MONTH_OF_YEAR, 1, TextStyle.FULL, locale);
+    }
+
+    @Benchmark
+    public int appendText() {
+        buf.setLength(0);
+        for (int i = 0; i < COUNT; i++) {
+            provider.appendText(MONTH_OF_YEAR, values[i], TextStyle.FULL, locale, buf);
+            buf.append(',');
+        }
+        return buf.length();
+    }
+
+    @Benchmark
+    public int appendTexts() {
+        buf.setLength(0);
+        provider.appendTexts(MONTH_OF_YEAR, values, TextStyle.FULL, locale, ",", buf);
+        return buf.length();
+    }
+}
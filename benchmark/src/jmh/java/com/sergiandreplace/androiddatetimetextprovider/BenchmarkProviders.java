@@ -0,0 +1,71 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.lang.reflect.Constructor;
+import org.threeten.bp.format.DateTimeTextProvider;
+
+/**
+ * Creates the providers compared by the benchmarks.
+ */
+final class BenchmarkProviders {
+
+    /** Name of this library's provider. */
+    static final String ANDROID = "android";
+    /** Name of this library's provider building all styles of a store at once. */
+    static final String ANDROID_EAGER = "android-eager";
+    /** Name of this library's provider with the read-mostly cache. */
+    static final String ANDROID_READ_MOSTLY = "android-read-mostly";
+    /** Name of ThreeTen's stock {@code SimpleDateTimeTextProvider}. */
+    static final String STOCK = "stock";
+
+    private BenchmarkProviders() {
+    }
+
+    /**
+     * Creates a provider with an empty cache.
+     *
+     * @param name the name of the provider, {@link #ANDROID}, {@link #ANDROID_EAGER},
+     *             {@link #ANDROID_READ_MOSTLY} or {@link #STOCK}
+     * @return the provider, not null
+     */
+    static DateTimeTextProvider create(String name) {
+        if (ANDROID.equals(name)) {
+            return new AndroidDateTimeTextProvider();
+        }
+        if (ANDROID_EAGER.equals(name)) {
+            return new AndroidDateTimeTextProvider.Builder().eagerStores().build();
+        }
+        if (ANDROID_READ_MOSTLY.equals(name)) {
+            return new AndroidDateTimeTextProvider.Builder().readMostlyCache().build();
+        }
+        if (STOCK.equals(name)) {
+            return createStock();
+        }
+        throw new IllegalArgumentException("Unknown provider: " + name);
+    }
+
+    /**
+     * Installs a provider for all formatters of this JVM.
+     * <p>
+     * ThreeTen only accepts this once per JVM, which holds as JMH forks a JVM per parameter set.
+     *
+     * @param name the name of the provider, {@link #ANDROID} or {@link #STOCK}
+     */
+    static void install(String name) {
+        if (ANDROID.equals(name)) {
+            DateTimeTextProvider.setInitializer(new AndroidDateTimeTextProvider());
+        }
+        // the stock provider is installed by default
+    }
+
+    private static DateTimeTextProvider createStock() {
+        try {
+            // the stock provider is package-private
+            Constructor<?> constructor = Class.forName("org.threeten.bp.format.SimpleDateTimeTextProvider")
+                    .getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return (DateTimeTextProvider) constructor.newInstance();
+        } catch (Exception ex) {
+            throw new IllegalStateException("Cannot create ThreeTen's stock provider", ex);
+        }
+    }
+}
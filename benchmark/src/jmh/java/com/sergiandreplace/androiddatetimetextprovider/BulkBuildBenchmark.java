@@ -0,0 +1,64 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.threeten.bp.temporal.ChronoField;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * Warming up an empty cache with many locales, one locale after the other or on all cores at once.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BulkBuildBenchmark {
+
+    private static final List<TemporalField> FIELDS = Arrays.<TemporalField>asList(
+            ChronoField.MONTH_OF_YEAR, ChronoField.DAY_OF_WEEK, ChronoField.AMPM_OF_DAY, ChronoField.ERA);
+
+    @Param({"150"})
+    public int localeCount;
+
+    private List<Locale> locales;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        locales = new ArrayList<Locale>();
+        for (Locale locale : Locale.getAvailableLocales()) {
+            if (locales.size() < localeCount) {
+                locales.add(locale);
+            }
+        }
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public Object prewarm() throws Exception {
+        return new AndroidDateTimeTextProvider().prewarm(locales, FIELDS, executor).get();
+    }
+
+    @Benchmark
+    public Object prebuild() throws Exception {
+        return new AndroidDateTimeTextProvider().prebuild(locales, FIELDS, executor).get();
+    }
+}
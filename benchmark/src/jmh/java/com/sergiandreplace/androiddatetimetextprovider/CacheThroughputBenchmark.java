@@ -0,0 +1,80 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.threeten.bp.format.DateTimeTextProvider;
+import org.threeten.bp.format.TextStyle;
+
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_WEEK;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+/**
+ * Lookups from all cores at once on a shared warm cache, rotating through several locales.
+ * Compare with the single-threaded throughput to see how each cache scales.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+public class CacheThroughputBenchmark {
+
+    private static final Locale[] LOCALES = {
+            Locale.forLanguageTag("ca-ES"),
+            Locale.forLanguageTag("pl-PL"),
+            Locale.forLanguageTag("fi-FI"),
+            Locale.forLanguageTag("ru-RU"),
+            Locale.forLanguageTag("en-US"),
+            Locale.forLanguageTag("en-GB"),
+            Locale.forLanguageTag("es-ES"),
+            Locale.forLanguageTag("de-DE")
+    };
+
+    @State(Scope.Benchmark)
+    public static class SharedProvider {
+
+        @Param({BenchmarkProviders.ANDROID, BenchmarkProviders.ANDROID_READ_MOSTLY, BenchmarkProviders.STOCK})
+        public String provider;
+
+        DateTimeTextProvider textProvider;
+
+        @Setup
+        public void setUp() {
+            textProvider = BenchmarkProviders.create(provider);
+            for (Locale locale : LOCALES) {
+                textProvider.getText(MONTH_OF_YEAR, 1, TextStyle.FULL, locale);
+                textProvider.getText(DAY_OF_WEEK, 1, TextStyle.FULL, locale);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        Locale nextLocale() {
+            next = (next + 1) % LOCALES.length;
+            return LOCALES[next];
+        }
+    }
+
+    @Benchmark
+    public String getText(SharedProvider shared, Cursor cursor) {
+        Locale locale = cursor.nextLocale();
+        shared.textProvider.getText(DAY_OF_WEEK, 3, TextStyle.SHORT, locale);
+        return shared.textProvider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, locale);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String getTextSingleThread(SharedProvider shared, Cursor cursor) {
+        return getText(shared, cursor);
+    }
+}
@@ -0,0 +1,22 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Locale;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * Extracts texts from {@link java.text.DateFormatSymbols} and {@link java.text.SimpleDateFormat},
+ * as the provider does when no other source has them.
+ * <p>
+ * Every call loads the platform data again; the provider itself shares it across
+ * the fields of a locale. This class is only used by {@link TextSourceBenchmark},
+ * to compare extraction with the other sources.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+final class FormatTextSource implements TextSource {
+
+    @Override
+    public String[][] getTexts(TemporalField field, Locale locale) {
+        return new LocaleTextExtractor(locale).extract(field);
+    }
+}
@@ -0,0 +1,63 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.format.DateTimeFormatter;
+import org.threeten.bp.temporal.TemporalAccessor;
+
+/**
+ * End-to-end formatting and parsing through {@link DateTimeFormatter}, with the provider installed globally.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class FormatterBenchmark {
+
+    @Param({BenchmarkProviders.ANDROID, BenchmarkProviders.STOCK})
+    public String provider;
+
+    @Param({"LLLL", "MMMM", "cccc", "d MMMM yyyy"})
+    public String pattern;
+
+    @Param({"ca-ES", "pl-PL", "en-US"})
+    public String locale;
+
+    private DateTimeFormatter formatter;
+    private MemoizingDateFormatter memoizingFormatter;
+    private LocalDate date;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        BenchmarkProviders.install(provider);
+        formatter = DateTimeFormatter.ofPattern(pattern, Locale.forLanguageTag(locale));
+        date = LocalDate.of(2020, 4, 8);
+        text = formatter.format(date);
+        memoizingFormatter = new MemoizingDateFormatter(formatter, 366);
+        memoizingFormatter.precomputeYear(2020);
+    }
+
+    @Benchmark
+    public String format() {
+        return formatter.format(date);
+    }
+
+    @Benchmark
+    public String formatMemoized() {
+        return memoizingFormatter.format(date);
+    }
+
+    @Benchmark
+    public TemporalAccessor parse() {
+        return formatter.parse(text);
+    }
+}
@@ -0,0 +1,63 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.threeten.bp.format.TextStyle;
+import org.threeten.bp.temporal.ChronoField;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * Cold lookups, each on a provider with an empty cache.
+ * <p>
+ * By default this library only extracts the style used,
+ * while with eager stores a miss extracts all styles and also builds the other fields of the locale.
+ * The platform caches of {@code DateFormatSymbols} stay warm, as they would on a device.
+ * <p>
+ * {@link #createStore()} runs as Android 6.0 (API 23), where months and days of the week are extracted
+ * by formatting dates with {@code SimpleDateFormat}, and {@link #createStoreIcu()} as Android 10 (API 29),
+ * where they are read from ICU. The other fields are extracted from the symbols on both.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class StoreCreationBenchmark {
+
+    @Param({BenchmarkProviders.ANDROID, BenchmarkProviders.ANDROID_EAGER, BenchmarkProviders.STOCK})
+    public String provider;
+
+    @Param({"MONTH_OF_YEAR", "DAY_OF_WEEK", "AMPM_OF_DAY", "ERA"})
+    public String field;
+
+    @Param({"ca-ES", "pl-PL", "en-US"})
+    public String locale;
+
+    private TemporalField textField;
+    private Locale textLocale;
+
+    @Setup
+    public void setUp() {
+        textField = ChronoField.valueOf(field);
+        textLocale = Locale.forLanguageTag(locale);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dandroid.sdk=23")
+    public String createStore() {
+        return BenchmarkProviders.create(provider).getText(textField, 1, TextStyle.FULL, textLocale);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dandroid.sdk=29")
+    public String createStoreIcu() {
+        return BenchmarkProviders.create(provider).getText(textField, 1, TextStyle.FULL, textLocale);
+    }
+}
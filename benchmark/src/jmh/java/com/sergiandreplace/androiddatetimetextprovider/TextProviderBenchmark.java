@@ -0,0 +1,57 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.threeten.bp.format.DateTimeTextProvider;
+import org.threeten.bp.format.TextStyle;
+
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+
+/**
+ * Hot lookups on a warm cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class TextProviderBenchmark {
+
+    @Param({BenchmarkProviders.ANDROID, BenchmarkProviders.STOCK})
+    public String provider;
+
+    @Param({"ca-ES", "pl-PL", "en-US"})
+    public String locale;
+
+    private DateTimeTextProvider textProvider;
+    private Locale textLocale;
+
+    @Setup
+    public void setUp() {
+        textProvider = BenchmarkProviders.create(provider);
+        textLocale = Locale.forLanguageTag(locale);
+        textProvider.getText(MONTH_OF_YEAR, 1, TextStyle.FULL, textLocale);
+    }
+
+    @Benchmark
+    public String getText() {
+        return textProvider.getText(MONTH_OF_YEAR, 4, TextStyle.FULL, textLocale);
+    }
+
+    @Benchmark
+    public void getTextIterator(Blackhole blackhole) {
+        Iterator<Entry<String, Long>> iterator = textProvider.getTextIterator(MONTH_OF_YEAR, TextStyle.FULL, textLocale);
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
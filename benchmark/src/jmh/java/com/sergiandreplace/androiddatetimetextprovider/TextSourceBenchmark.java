@@ -0,0 +1,62 @@
+package com.sergiandreplace.androiddatetimetextprovider;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.threeten.bp.temporal.ChronoField;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * The text sources compared with each other, each reading all styles of a field in a locale.
+ * <p>
+ * Only the locales of this benchmark have generated tables in this module,
+ * and only when built on Java 9 or later.
+ * The ICU source only has months and days of the week.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TextSourceBenchmark {
+
+    @Param({"FORMAT", "ICU", "TABLE"})
+    public String source;
+
+    @Param({"MONTH_OF_YEAR", "DAY_OF_WEEK"})
+    public String field;
+
+    @Param({"de-DE", "fi-FI"})
+    public String locale;
+
+    private TextSource textSource;
+    private TemporalField textField;
+    private Locale textLocale;
+
+    @Setup
+    public void setUp() {
+        if (source.equals("FORMAT")) {
+            textSource = new FormatTextSource();
+        } else if (source.equals("ICU")) {
+            textSource = new IcuTextSource();
+        } else {
+            textSource = new StaticTableTextSource();
+        }
+        textField = ChronoField.valueOf(field);
+        textLocale = Locale.forLanguageTag(locale);
+        if (textSource.getTexts(textField, textLocale) == null) {
+            // tables are empty when the module is built on Java 8
+            throw new IllegalStateException("No texts from " + source + " for " + field + " in " + locale);
+        }
+    }
+
+    @Benchmark
+    public String[][] getTexts() {
+        return textSource.getTexts(textField, textLocale);
+    }
+}
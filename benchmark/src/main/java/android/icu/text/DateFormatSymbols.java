@@ -0,0 +1,33 @@
+package android.icu.text;
+
+import java.util.Locale;
+
+/**
+ * JVM stand-in for the Android class, which is a repackaged copy of ICU4J's.
+ */
+public class DateFormatSymbols {
+
+    public static final int FORMAT = com.ibm.icu.text.DateFormatSymbols.FORMAT;
+    public static final int STANDALONE = com.ibm.icu.text.DateFormatSymbols.STANDALONE;
+    public static final int ABBREVIATED = com.ibm.icu.text.DateFormatSymbols.ABBREVIATED;
+    public static final int WIDE = com.ibm.icu.text.DateFormatSymbols.WIDE;
+    public static final int NARROW = com.ibm.icu.text.DateFormatSymbols.NARROW;
+
+    private final com.ibm.icu.text.DateFormatSymbols symbols;
+
+    private DateFormatSymbols(com.ibm.icu.text.DateFormatSymbols symbols) {
+        this.symbols = symbols;
+    }
+
+    public static DateFormatSymbols getInstance(Locale locale) {
+        return new DateFormatSymbols(com.ibm.icu.text.DateFormatSymbols.getInstance(locale));
+    }
+
+    public String[] getMonths(int context, int width) {
+        return symbols.getMonths(context, width);
+    }
+
+    public String[] getWeekdays(int context, int width) {
+        return symbols.getWeekdays(context, width);
+    }
+}
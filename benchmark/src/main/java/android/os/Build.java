@@ -0,0 +1,29 @@
+package android.os;
+
+/**
+ * JVM stand-in for the Android class, with the values of a recent device by default.
+ */
+public class Build {
+
+    /** Fingerprint of the JVM, which changes with its version like a device fingerprint does. */
+    public static final String FINGERPRINT = "jvm/" + System.getProperty("java.version");
+
+    private Build() {
+    }
+
+    /**
+     * JVM stand-in for the Android class.
+     */
+    public static class VERSION {
+
+        /**
+         * The SDK level, high enough to take the paths of current devices,
+         * unless set with the {@code android.sdk} system property to take those of older ones.
+         * Not a constant, so that the compiled library reads the value of each JVM.
+         */
+        public static final int SDK_INT = Integer.getInteger("android.sdk", 29);
+
+        private VERSION() {
+        }
+    }
+}
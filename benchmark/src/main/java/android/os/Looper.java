@@ -0,0 +1,30 @@
+package android.os;
+
+/**
+ * JVM stand-in for the Android class, where no thread is the main thread.
+ */
+public final class Looper {
+
+    private static final Looper MAIN = new Looper();
+
+    private Looper() {
+    }
+
+    /**
+     * Gets the looper of the main thread.
+     *
+     * @return the looper of the main thread, not null
+     */
+    public static Looper getMainLooper() {
+        return MAIN;
+    }
+
+    /**
+     * Gets the looper of the current thread.
+     *
+     * @return null, as the JVM runs no looper
+     */
+    public static Looper myLooper() {
+        return null;
+    }
+}
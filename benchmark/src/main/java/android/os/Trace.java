@@ -0,0 +1,33 @@
+package android.os;
+
+/**
+ * JVM stand-in for the Android class, writing no trace.
+ */
+public final class Trace {
+
+    private Trace() {
+    }
+
+    /**
+     * Checks whether the app is traced, never on the JVM.
+     *
+     * @return false
+     */
+    public static boolean isEnabled() {
+        return false;
+    }
+
+    /**
+     * Does nothing, as the JVM has no system trace.
+     *
+     * @param sectionName the name of the section
+     */
+    public static void beginSection(String sectionName) {
+    }
+
+    /**
+     * Does nothing, as the JVM has no system trace.
+     */
+    public static void endSection() {
+    }
+}
@@ -0,0 +1,24 @@
+package android.util;
+
+/**
+ * JVM stand-in for the Android class, writing to the standard error stream.
+ */
+public final class Log {
+
+    private Log() {
+    }
+
+    /**
+     * Writes a warning.
+     *
+     * @param tag the tag of the warning
+     * @param msg the warning
+     * @param tr the throwable whose stack trace is written
+     * @return zero
+     */
+    public static int w(String tag, String msg, Throwable tr) {
+        System.err.println("W/" + tag + ": " + msg);
+        tr.printStackTrace();
+        return 0;
+    }
+}
@@ -0,0 +1,335 @@
+package com.sergiandreplace.androiddatetimetextprovider.gradle;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.text.DateFormatSymbols;
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.IllformedLocaleException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Generates the {@code StaticTextTables} class of the library from the CLDR data of the build JDK.
+ * <p>
+ * For every declared locale the generated class holds the texts of all styles of
+ * MONTH_OF_YEAR, DAY_OF_WEEK, AMPM_OF_DAY and ERA, so the provider can serve them
+ * without extracting them at runtime. With no locales the generated class is empty.
+ * <p>
+ * The texts follow the rules of {@code LocaleTextExtractor} field by field, only reading
+ * the standalone and narrow texts from CLDR instead of formatting dates, so a locale prints
+ * the same with or without a table. Each locale is generated, and looked up, as the locale
+ * {@code LocaleResolver} resolves it to, so declared locales with extensions or without
+ * data of their own still hit their table.
+ * <p>
+ * The texts of each locale are held by a nested class of their own, reached through a switch
+ * on the locale, so any number of locales fits the size limits of methods and classes,
+ * and only the classes of the locales used are loaded.
+ * <p>
+ * The JDK only reads standalone texts from CLDR since Java 9, so generating tables
+ * on an older JDK is refused.
+ */
+public final class TextTableGenerator {
+
+    private static final String PACKAGE = "com.sergiandreplace.androiddatetimetextprovider";
+    private static final String CLASS_NAME = "StaticTextTables";
+
+    /** The ThreeTen style order, which the generated arrays are indexed by. */
+    private static final TextStyle[] STYLES = {
+            TextStyle.FULL, TextStyle.FULL_STANDALONE,
+            TextStyle.SHORT, TextStyle.SHORT_STANDALONE,
+            TextStyle.NARROW, TextStyle.NARROW_STANDALONE};
+
+    /** The resolved locales to generate. */
+    private final List<Locale> locales = new ArrayList<Locale>();
+
+    /**
+     * Constructor.
+     *
+     * @param languageTags the BCP 47 tags of the locales to generate, not null
+     */
+    public TextTableGenerator(Iterable<String> languageTags) {
+        Set<Locale> available = null;
+        for (String tag : languageTags) {
+            if (available == null) {
+                available = new HashSet<Locale>(Arrays.asList(DateFormatSymbols.getAvailableLocales()));
+            }
+            Locale locale = resolve(Locale.forLanguageTag(tag), available);
+            if (!locales.contains(locale)) {
+                locales.add(locale);  // each locale is a case of a switch, which cannot repeat
+            }
+        }
+    }
+
+    /**
+     * Writes the generated class below a source directory.
+     *
+     * @param sourceDirectory the root of the generated sources, not null
+     * @throws IOException if the class cannot be written
+     */
+    public void writeTo(File sourceDirectory) throws IOException {
+        if (!locales.isEmpty() && !isCldrDefault()) {
+            throw new IllegalStateException("Generating text tables requires the CLDR data of Java 9 or later");
+        }
+        File directory = new File(sourceDirectory, PACKAGE.replace('.', File.separatorChar));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        Writer writer = new OutputStreamWriter(
+                new FileOutputStream(new File(directory, CLASS_NAME + ".java")), Charset.forName("UTF-8"));
+        try {
+            writer.write(generate());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Generates the source of the class.
+     *
+     * @return the source, not null
+     */
+    public String generate() {
+        StringBuilder buf = new StringBuilder();
+        buf.append("package ").append(PACKAGE).append(";\n\n");
+        buf.append("import java.util.Locale;\n");
+        buf.append("import org.threeten.bp.temporal.TemporalField;\n\n");
+        buf.append("import static org.threeten.bp.temporal.ChronoField.AMPM_OF_DAY;\n");
+        buf.append("import static org.threeten.bp.temporal.ChronoField.DAY_OF_WEEK;\n");
+        buf.append("import static org.threeten.bp.temporal.ChronoField.ERA;\n");
+        buf.append("import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;\n\n");
+        buf.append("/**\n");
+        buf.append(" * Texts generated at build time from CLDR data.\n");
+        buf.append(" * <p>\n");
+        buf.append(" * Generated by {@code TextTableGenerator}, do not edit.\n");
+        buf.append(" */\n");
+        buf.append("final class ").append(CLASS_NAME).append(" {\n\n");
+        buf.append("    /** The BCP 47 tags of the resolved locales with texts. */\n");
+        buf.append("    static final String[] LOCALES = {");
+        for (int i = 0; i < locales.size(); i++) {
+            buf.append(i > 0 ? ", " : "");
+            appendLiteral(buf, locales.get(i).toLanguageTag());
+        }
+        buf.append("};\n\n");
+        buf.append("    private ").append(CLASS_NAME).append("() {\n");
+        buf.append("    }\n\n");
+        buf.append("    /**\n");
+        buf.append("     * Gets the generated texts of a field and locale.\n");
+        buf.append("     *\n");
+        buf.append("     * @param field the field, not null\n");
+        buf.append("     * @param locale the resolved locale, not null\n");
+        buf.append("     * @return the texts indexed by style ordinal and value offset,\n");
+        buf.append("     * null if no texts were generated for the field and locale\n");
+        buf.append("     */\n");
+        buf.append("    static String[][] get(TemporalField field, Locale locale) {\n");
+        if (locales.isEmpty()) {
+            buf.append("        return null;\n");
+        } else {
+            buf.append("        switch (locale.toString()) {\n");
+            for (int i = 0; i < locales.size(); i++) {
+                buf.append("            case \"").append(locales.get(i)).append("\":\n");
+                buf.append("                return Texts").append(i).append(".get(field);\n");
+            }
+            buf.append("            default:\n");
+            buf.append("                return null;\n");
+            buf.append("        }\n");
+        }
+        buf.append("    }\n");
+        for (int i = 0; i < locales.size(); i++) {
+            appendLocale(buf, i, locales.get(i));
+        }
+        buf.append("}\n");
+        return buf.toString();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Resolves a locale as {@code LocaleResolver} does at runtime, against the locales of the build JDK,
+     * to the most specific candidate with data of its own.
+     */
+    static Locale resolve(Locale locale, Set<Locale> available) {
+        List<Locale> candidates = candidates(locale);
+        for (Locale candidate : candidates) {
+            if (available.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return candidates.get(0);
+    }
+
+    private static List<Locale> candidates(Locale locale) {
+        String language = locale.getLanguage();
+        String country = locale.getCountry();
+        String variant = locale.getVariant();
+        List<Locale> candidates = new ArrayList<Locale>(5);
+        String script = locale.getScript();
+        if (!script.isEmpty()) {
+            try {
+                Locale.Builder builder = new Locale.Builder().setLanguage(language).setScript(script);
+                candidates.add(builder.setRegion(country).setVariant(variant).build());
+                candidates.add(builder.setVariant("").build());
+                candidates.add(builder.setRegion("").build());
+            } catch (IllformedLocaleException ex) {
+                candidates.add(locale);
+                return candidates;
+            }
+        } else {
+            candidates.add(new Locale(language, country, variant));  // drops any extensions
+        }
+        candidates.add(new Locale(language, country));
+        candidates.add(new Locale(language));
+        return candidates;
+    }
+
+    private static boolean isCldrDefault() {
+        try {
+            Runtime.class.getMethod("version");
+            return true;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    private static String[][] monthTexts(Locale locale) {
+        DateFormatSymbols symbols = DateFormatSymbols.getInstance(locale);
+        String[][] styleTexts = new String[STYLES.length][];
+        for (int style = 0; style < STYLES.length; style++) {
+            styleTexts[style] = new String[12];
+            for (Month month : Month.values()) {
+                styleTexts[style][month.ordinal()] = month.getDisplayName(STYLES[style], locale);
+            }
+        }
+        // the format texts from the symbols, as extracted at runtime, the others as their patterns format them
+        styleTexts[0] = Arrays.copyOf(symbols.getMonths(), 12);
+        styleTexts[2] = Arrays.copyOf(symbols.getShortMonths(), 12);
+        return withFormatFallback(styleTexts, 1);
+    }
+
+    private static String[][] dayTexts(Locale locale) {
+        DateFormatSymbols symbols = DateFormatSymbols.getInstance(locale);
+        String[][] styleTexts = new String[STYLES.length][];
+        for (int style = 0; style < STYLES.length; style++) {
+            styleTexts[style] = new String[7];
+            for (DayOfWeek day : DayOfWeek.values()) {
+                styleTexts[style][day.ordinal()] = day.getDisplayName(STYLES[style], locale);
+            }
+        }
+        styleTexts[0] = createDaysFromSymbolsArray(symbols.getWeekdays());
+        styleTexts[2] = createDaysFromSymbolsArray(symbols.getShortWeekdays());
+        return withFormatFallback(styleTexts, 1);
+    }
+
+    private static String[] createDaysFromSymbolsArray(String[] array) {
+        //Calendar days are from 1 (SUNDAY) to 7 (SATURDAY), ThreeTen days from 1 (MONDAY) to 7 (SUNDAY)
+        String[] texts = new String[7];
+        for (int i = 0; i < 7; i++) {
+            texts[i] = array[(i + 1) % 7 + 1];
+        }
+        return texts;
+    }
+
+    private static String[][] amPmTexts(Locale locale) {
+        // only the full and short styles, with the same texts, as the other styles have no data at runtime
+        String[] array = DateFormatSymbols.getInstance(locale).getAmPmStrings();
+        String[] texts = {array[Calendar.AM], array[Calendar.PM]};
+        String[][] styleTexts = new String[STYLES.length][];
+        styleTexts[0] = texts;
+        styleTexts[2] = texts;
+        return styleTexts;
+    }
+
+    private static String[][] eraTexts(Locale locale) {
+        // the abbreviated eras for every format style, as they are the only ones in the symbols at runtime
+        String[] array = DateFormatSymbols.getInstance(locale).getEras();
+        String[] texts = {array[GregorianCalendar.BC], array[GregorianCalendar.AD]};
+        String[][] styleTexts = new String[STYLES.length][];
+        styleTexts[0] = locale.getLanguage().equals(Locale.ENGLISH.getLanguage())
+                ? new String[] {"Before Christ", "Anno Domini"}
+                : texts;
+        styleTexts[2] = texts;
+        styleTexts[4] = new String[] {texts[0].substring(0, 1), texts[1].substring(0, 1)};
+        return styleTexts;
+    }
+
+    /**
+     * Replaces standalone texts the JDK has no data for, which it formats as the plain value,
+     * with the format texts of the same width, as the provider does at runtime.
+     */
+    private static String[][] withFormatFallback(String[][] styleTexts, int minValue) {
+        for (int style = 1; style < styleTexts.length; style += 2) {
+            if (styleTexts[style][0].equals(String.valueOf(minValue))) {
+                styleTexts[style] = styleTexts[style - 1];
+            }
+        }
+        return styleTexts;
+    }
+
+    /**
+     * Appends the class holding the texts of a locale, so that no single method or class
+     * grows with the number of locales beyond the limits of the class file format.
+     */
+    private static void appendLocale(StringBuilder buf, int index, Locale locale) {
+        buf.append("\n");
+        buf.append("    /**\n");
+        buf.append("     * Texts of ").append(locale).append(".\n");
+        buf.append("     */\n");
+        buf.append("    private static final class Texts").append(index).append(" {\n");
+        buf.append("        static String[][] get(TemporalField field) {\n");
+        appendField(buf, "MONTH_OF_YEAR", monthTexts(locale));
+        appendField(buf, "DAY_OF_WEEK", dayTexts(locale));
+        appendField(buf, "AMPM_OF_DAY", amPmTexts(locale));
+        appendField(buf, "ERA", eraTexts(locale));
+        buf.append("            return null;\n");
+        buf.append("        }\n");
+        buf.append("    }\n");
+    }
+
+    private static void appendField(StringBuilder buf, String field, String[][] styleTexts) {
+        buf.append("            if (field == ").append(field).append(") {\n");
+        buf.append("                return new String[][] {\n");
+        for (int style = 0; style < styleTexts.length; style++) {
+            buf.append("                        ");
+            if (styleTexts[style] == null) {
+                buf.append("null");  // no texts of its own, the provider falls back as for extracted texts
+            } else {
+                buf.append('{');
+                for (int i = 0; i < styleTexts[style].length; i++) {
+                    if (i > 0) {
+                        buf.append(", ");
+                    }
+                    appendLiteral(buf, styleTexts[style][i]);
+                }
+                buf.append('}');
+            }
+            buf.append(style < styleTexts.length - 1 ? ",\n" : "\n");
+        }
+        buf.append("                };\n");
+        buf.append("            }\n");
+    }
+
+    private static void appendLiteral(StringBuilder buf, String text) {
+        buf.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                buf.append('\\').append(c);
+            } else if (c >= 0x20 && c < 0x7f) {
+                buf.append(c);
+            } else {
+                buf.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        buf.append('"');
+    }
+}
@@ -0,0 +1,164 @@
+package com.sergiandreplace.androiddatetimetextprovider.gradle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.text.DateFormatSymbols;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.threeten.bp.temporal.ChronoField;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+
+public class TextTableGeneratorTest {
+
+    /** More than the locales of most apps, well beyond the limits of a single method. */
+    private static final int LOCALE_COUNT = 200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        assumeTrue("Requires the CLDR data of Java 9 or later",
+                !System.getProperty("java.specification.version").startsWith("1."));
+    }
+
+    private static List<String> availableTags(int count) {
+        TreeSet<String> tags = new TreeSet<String>();
+        for (Locale locale : Locale.getAvailableLocales()) {
+            if (!locale.getCountry().isEmpty()) {
+                tags.add(locale.toLanguageTag());
+            }
+        }
+        List<String> list = new ArrayList<String>(tags);
+        return list.subList(0, Math.min(count, list.size()));
+    }
+
+    /**
+     * Generates, compiles and loads the tables of the given locales.
+     *
+     * @return the {@code get(TemporalField, Locale)} method of the tables
+     */
+    private Method generate(List<String> tags) throws Exception {
+        Method get = loadTables(tags)
+                .getDeclaredMethod("get", org.threeten.bp.temporal.TemporalField.class, Locale.class);
+        get.setAccessible(true);
+        return get;
+    }
+
+    /**
+     * Generates, compiles and loads the tables of the given locales.
+     *
+     * @return the class of the tables
+     */
+    private Class<?> loadTables(List<String> tags) throws Exception {
+        File sources = folder.newFolder();
+        File classes = folder.newFolder();
+        new TextTableGenerator(tags).writeTo(sources);
+        File source = new File(sources, "com/sergiandreplace/androiddatetimetextprovider/StaticTextTables.java");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int result = compiler.run(null, null, errors, "-encoding", "UTF-8", "-d", classes.getPath(),
+                "-cp", System.getProperty("java.class.path"), source.getPath());
+        assertEquals(errors.toString("UTF-8"), 0, result);
+
+        ClassLoader loader = new URLClassLoader(new URL[] {classes.toURI().toURL()}, getClass().getClassLoader());
+        return loader.loadClass("com.sergiandreplace.androiddatetimetextprovider.StaticTextTables");
+    }
+
+    @Test
+    public void testManyLocales() throws Exception {
+        List<String> tags = availableTags(LOCALE_COUNT);
+        assertEquals(LOCALE_COUNT, tags.size());
+        Method get = generate(tags);
+
+        for (String tag : tags) {
+            Locale locale = Locale.forLanguageTag(tag);
+            String[][] texts = (String[][]) get.invoke(null, ChronoField.MONTH_OF_YEAR, locale);
+            assertEquals(tag, Month.APRIL.getDisplayName(TextStyle.FULL, locale), texts[0][3]);
+            assertEquals(tag, 7, ((String[][]) get.invoke(null, ChronoField.DAY_OF_WEEK, locale))[0].length);
+        }
+        assertNull(get.invoke(null, ChronoField.MONTH_OF_YEAR, new Locale("xx", "YY")));
+        assertNull(get.invoke(null, ChronoField.YEAR, Locale.forLanguageTag(tags.get(0))));
+    }
+
+    @Test
+    public void testNoLocales() throws Exception {
+        Method get = generate(Collections.<String>emptyList());
+
+        assertNull(get.invoke(null, ChronoField.MONTH_OF_YEAR, Locale.US));
+    }
+
+    @Test
+    public void testDuplicateLocales() throws Exception {
+        Method get = generate(Arrays.asList("ca-ES", "pl-PL", "ca-ES"));
+
+        String[][] texts = (String[][]) get.invoke(null, ChronoField.MONTH_OF_YEAR, new Locale("ca", "ES"));
+        assertEquals(Month.APRIL.getDisplayName(TextStyle.FULL, new Locale("ca", "ES")), texts[0][3]);
+    }
+
+    @Test
+    public void testFieldRulesOfExtraction() throws Exception {
+        Locale catalan = new Locale("ca", "ES");
+        Method get = generate(Arrays.asList("ca-ES", "en-US"));
+        String[] eras = DateFormatSymbols.getInstance(catalan).getEras();
+        String[] amPm = DateFormatSymbols.getInstance(catalan).getAmPmStrings();
+
+        // eras are abbreviated in every style, except the full English ones
+        String[][] texts = (String[][]) get.invoke(null, ChronoField.ERA, catalan);
+        assertArrayEquals(eras, texts[0]);
+        assertNull(texts[1]);
+        assertArrayEquals(eras, texts[2]);
+        assertNull(texts[3]);
+        assertArrayEquals(new String[] {eras[0].substring(0, 1), eras[1].substring(0, 1)}, texts[4]);
+        assertNull(texts[5]);
+        texts = (String[][]) get.invoke(null, ChronoField.ERA, Locale.US);
+        assertArrayEquals(new String[] {"Before Christ", "Anno Domini"}, texts[0]);
+
+        // only the full and short styles of AM/PM have texts
+        texts = (String[][]) get.invoke(null, ChronoField.AMPM_OF_DAY, catalan);
+        assertArrayEquals(amPm, texts[0]);
+        assertArrayEquals(amPm, texts[2]);
+        for (int style : new int[] {1, 3, 4, 5}) {
+            assertNull(texts[style]);
+        }
+
+        texts = (String[][]) get.invoke(null, ChronoField.MONTH_OF_YEAR, catalan);
+        assertArrayEquals(Arrays.copyOf(DateFormatSymbols.getInstance(catalan).getMonths(), 12), texts[0]);
+    }
+
+    @Test
+    public void testLocalesKeyedAsResolved() throws Exception {
+        Class<?> tables = loadTables(Arrays.asList("ca-ES-u-nu-latn", "ca-ES"));
+        Method get = tables.getDeclaredMethod("get", org.threeten.bp.temporal.TemporalField.class, Locale.class);
+        get.setAccessible(true);
+        Field locales = tables.getDeclaredField("LOCALES");
+        locales.setAccessible(true);
+
+        // extensions are dropped at runtime before the tables are looked up
+        assertArrayEquals(new String[] {"ca-ES"}, (String[]) locales.get(null));
+        String[][] texts = (String[][]) get.invoke(null, ChronoField.MONTH_OF_YEAR, new Locale("ca", "ES"));
+        assertEquals(Month.APRIL.getDisplayName(TextStyle.FULL, new Locale("ca", "ES")), texts[0][3]);
+        assertNull(get.invoke(null, ChronoField.MONTH_OF_YEAR, Locale.forLanguageTag("ca-ES-u-nu-latn")));
+    }
+}